@@ -6,6 +6,7 @@ import dev.majek.pc.data.*;
 import dev.majek.pc.gui.GuiHandler;
 import dev.majek.pc.hooks.PlaceholderAPI;
 import dev.majek.pc.mechanic.MechanicHandler;
+import dev.majek.pc.mechanic.TeleportHandler;
 import dev.majek.pc.util.Chat;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -24,6 +25,10 @@ public final class PartyChat extends JavaPlugin {
     private final GuiHandler guiHandler;
     private final LanguageHandler languageHandler;
     private final PartyHandler partyHandler;
+    private final CooldownHandler cooldownHandler;
+    private final ExpiryHandler expiryHandler;
+    private final TeleportHandler teleportHandler;
+    private final ConfigWatcher configWatcher;
     private final PartyChatAPI partyChatAPI;
 
     // Hooks
@@ -40,6 +45,10 @@ public final class PartyChat extends JavaPlugin {
         this.languageHandler = new LanguageHandler();
         this.guiHandler = new GuiHandler();
         this.partyHandler = new PartyHandler();
+        this.cooldownHandler = new CooldownHandler();
+        this.expiryHandler = new ExpiryHandler();
+        this.teleportHandler = new TeleportHandler();
+        this.configWatcher = new ConfigWatcher();
         this.partyChatAPI = new PartyChatAPI();
     }
 
@@ -82,8 +91,6 @@ public final class PartyChat extends JavaPlugin {
             hasEssentials = true;
         }
 
-        Bukkit.getScheduler().scheduleSyncDelayedTask(instance, () -> getDataHandler().postStartup(), 40L);
-
         Bukkit.getScheduler().scheduleSyncDelayedTask(instance, () ->
                 log("Successfully loaded PartyChat version " + pdf.getVersion()), 60L);
     }
@@ -149,6 +156,38 @@ public final class PartyChat extends JavaPlugin {
         return instance.partyHandler;
     }
 
+    /**
+     * Get PartyChat's cooldown handler. This class stores /party subcommand cooldowns.
+     * @return CooldownHandler
+     */
+    public static CooldownHandler getCooldownHandler() {
+        return instance.cooldownHandler;
+    }
+
+    /**
+     * Get PartyChat's expiry handler. This class expires invitations, join requests, join blocks, and summons.
+     * @return ExpiryHandler
+     */
+    public static ExpiryHandler getExpiryHandler() {
+        return instance.expiryHandler;
+    }
+
+    /**
+     * Get PartyChat's teleport handler. This class runs summon countdowns and teleports.
+     * @return TeleportHandler
+     */
+    public static TeleportHandler getTeleportHandler() {
+        return instance.teleportHandler;
+    }
+
+    /**
+     * Get PartyChat's config watcher. This class applies config file changes as they're saved.
+     * @return ConfigWatcher
+     */
+    public static ConfigWatcher getConfigWatcher() {
+        return instance.configWatcher;
+    }
+
     /**
      * Get the PartyChat API. This class contains helpful API methods.
      * @return PartyChatAPI
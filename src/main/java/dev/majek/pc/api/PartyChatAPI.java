@@ -4,13 +4,21 @@ import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyChatCommand;
 import dev.majek.pc.command.PartyCommand;
 import dev.majek.pc.data.object.Party;
+import dev.majek.pc.data.object.PartySnapshot;
+import dev.majek.pc.data.object.PartyView;
 import dev.majek.pc.data.object.User;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
-import java.util.Collections;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Methods returning a {@link CompletableFuture} apply their change to the live parties before returning and
+ * complete once the change is written to parties.json, so they're safe to call from the main thread without
+ * waiting on the disk. They complete on PartyChat's storage thread, so switch back to the main thread before
+ * using the Bukkit API in a callback. Read methods return immutable {@link PartyView}s.
+ */
 public class PartyChatAPI {
 
     /**
@@ -25,40 +33,92 @@ public class PartyChatAPI {
 
     /**
      * Create a new party with a party name and user as the leader. This will not trigger {@link PartyCreateEvent}.
+     * The party is saved in the background, use {@link #createPartyAsync(String, User)} to know when it's saved.
      *
      * @param name The name of the party.
      * @param leader The {@link User} who will be leader.
      */
     public void createParty(@NotNull String name, @NotNull User leader) {
+        createPartyAsync(name, leader);
+    }
+
+    /**
+     * Create a new party with a party name and user as the leader. This will not trigger {@link PartyCreateEvent}.
+     *
+     * @param name The name of the party.
+     * @param leader The {@link User} who will be leader.
+     * @return Future completing with the new party once it's saved.
+     */
+    public CompletableFuture<PartyView> createPartyAsync(@NotNull String name, @NotNull User leader) {
+        return createPartiesAsync(Collections.singletonMap(name, leader)).thenApply(parties -> parties.get(0));
+    }
+
+    /**
+     * Create several parties at once, saving them all in a single write. This will not trigger
+     * {@link PartyCreateEvent}.
+     *
+     * @param parties Party names mapped to the {@link User} who will lead each party.
+     * @return Future completing with the new parties, in the map's iteration order, once they're all saved.
+     */
+    public CompletableFuture<List<PartyView>> createPartiesAsync(@NotNull Map<String, User> parties) {
+        List<Party> created = new ArrayList<>(parties.size());
+        List<PartyView> views = new ArrayList<>(parties.size());
+        parties.forEach((name, leader) -> {
+            Party party = addParty(name, leader);
+            created.add(party);
+            views.add(new PartyView(party));
+        });
+        List<PartyView> result = Collections.unmodifiableList(views);
+
+        if (!PartyChat.getDataHandler().persistentParties)
+            return CompletableFuture.completedFuture(result);
+        return PartyChat.getPartyHandler().saveParties(created).thenApply(v -> result);
+    }
+
+    private Party addParty(String name, User leader) {
         Party party = new Party(
                 name,
                 leader.getPlayerID().toString(),
                 Collections.singletonList(leader),
-                PartyChat.getDataHandler().getConfigBoolean(PartyChat.getDataHandler().mainConfig, "public-on-creation"),
-                PartyChat.getDataHandler().getConfigBoolean(PartyChat.getDataHandler().mainConfig, "default-friendly-fire")
+                PartyChat.getDataHandler().getSettings().publicOnCreation(),
+                PartyChat.getDataHandler().getSettings().defaultFriendlyFire()
         );
 
         PartyChat.getPartyHandler().addToPartyMap(party.getId(), party);
         leader.setPartyID(party.getId());
         leader.setInParty(true);
+        return party;
+    }
 
-        if (PartyChat.getDataHandler().persistentParties)
-            PartyChat.getPartyHandler().saveParty(party);
+    /**
+     * Disband a party. This will not trigger {@link PartyDeleteEvent} or message the party's members.
+     *
+     * @param party The party's unique id.
+     * @return Future completing with true once the party is removed from parties.json, or false if no party
+     *         with the specified id exists.
+     */
+    public CompletableFuture<Boolean> deletePartyAsync(UUID party) {
+        Party toDelete = PartyChat.getPartyHandler().getParty(party);
+        if (toDelete == null)
+            return CompletableFuture.completedFuture(false);
+        return PartyChat.getPartyHandler().deleteParty(toDelete).thenApply(v -> true);
     }
 
     /**
-     * Get a {@link Party} from a {@link User} in the party.
+     * Get a {@link Party} from a {@link User} in the party. This is the live party, so it should only be used
+     * on the main thread. Use {@link #getPartyViewOf(UUID)} for a read-only copy.
      *
      * @param user The user who must be in the party. Will return null if user is not in a party.
      * @return The {@link Party} the {@link User} is in, if in one.
      */
     @Nullable
     public Party getParty(User user) {
-        return PartyChat.getPartyHandler().getPartyMap().get(user.getPartyID());
+        return PartyChat.getPartyHandler().getParty(user);
     }
 
     /**
-     * Get a {@link Party} from the party's unique id.
+     * Get a {@link Party} from the party's unique id. This is the live party, so it should only be used on the
+     * main thread. Use {@link #getPartyView(UUID)} for a read-only copy.
      *
      * @param party The party's unique id, note this may NOT be a player id. Will return null if no party with
      *              the specified id exists.
@@ -66,7 +126,56 @@ public class PartyChatAPI {
      */
     @Nullable
     public Party getParty(UUID party) {
-        return PartyChat.getPartyHandler().getPartyMap().get(party);
+        return PartyChat.getPartyHandler().getParty(party);
+    }
+
+    /**
+     * Get an immutable view of a party from the latest {@link PartySnapshot}.
+     *
+     * @param party The party's unique id.
+     * @return The party, if it exists.
+     */
+    @Nullable
+    public PartyView getPartyView(UUID party) {
+        return getPartySnapshot().getParty(party);
+    }
+
+    /**
+     * Get an immutable view of the party a player is in from the latest {@link PartySnapshot}.
+     *
+     * @param player The player's unique id.
+     * @return The player's party, if they're in one.
+     */
+    @Nullable
+    public PartyView getPartyViewOf(UUID player) {
+        return getPartySnapshot().getPartyOf(player);
+    }
+
+    /**
+     * Get immutable views of several parties, all from the same {@link PartySnapshot}.
+     *
+     * @param parties The parties' unique ids.
+     * @return The parties that exist, keyed by party id.
+     */
+    public Map<UUID, PartyView> getPartyViews(Collection<UUID> parties) {
+        PartySnapshot snapshot = getPartySnapshot();
+        Map<UUID, PartyView> views = new HashMap<>();
+        for (UUID party : parties) {
+            PartyView view = snapshot.getParty(party);
+            if (view != null)
+                views.put(party, view);
+        }
+        return Collections.unmodifiableMap(views);
+    }
+
+    /**
+     * Get an immutable snapshot of every party. The snapshot is safe to read from any thread and is replaced
+     * after each batch of changes, so it may trail the live parties by up to a tick.
+     *
+     * @return The latest {@link PartySnapshot}.
+     */
+    public PartySnapshot getPartySnapshot() {
+        return PartyChat.getPartyHandler().getSnapshot();
     }
 
 }
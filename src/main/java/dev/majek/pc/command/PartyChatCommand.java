@@ -1,9 +1,12 @@
 package dev.majek.pc.command;
 
 import dev.majek.pc.PartyChat;
+import dev.majek.pc.data.object.Language;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.Restrictions;
 import dev.majek.pc.data.object.User;
+import dev.majek.pc.data.storage.YAMLPatcher;
 import dev.majek.pc.util.Chat;
 import dev.majek.pc.util.TabCompleterBase;
 import okhttp3.*;
@@ -56,10 +59,10 @@ public class PartyChatCommand implements TabCompleter, CommandExecutor {
 
                 // Check if the admins wants to use permissions
                 // Ignore this whole section if they have admin perms
-                if (PartyChat.getDataHandler().getConfigBoolean(mainConfig, "use-permissions")
+                if (PartyChat.getDataHandler().getSettings().usePermissions()
                         && !sender.hasPermission("partychat.admin"))
                     if (!sender.hasPermission("partychat.use")) {
-                        sendMessage(sender, "no-permission"); return true;
+                        sendMessage(sender, Message.NO_PERMISSION); return true;
                     }
 
                 // Everything for /pc <edit|spy|reload|bugreport>
@@ -70,19 +73,19 @@ public class PartyChatCommand implements TabCompleter, CommandExecutor {
                             PartyCommand.reload();
                             PartyChatCommand.reload();
                             PartyChat.getCommandHandler().reload();
-                            sendMessage(sender, "plugin-reloaded"); return true;
+                            sendMessage(sender, Message.PLUGIN_RELOADED); return true;
                         case "spy":
                             if (!(sender instanceof Player)) {
-                                sendMessage(sender, "console-spy"); return true;
+                                sendMessage(sender, Message.CONSOLE_SPY); return true;
                             }
                             Player player = (Player) sender;
                             User user = PartyChat.getDataHandler().getUser(player);
                             user.flipSpyToggle();
-                            sendMessage(player, user.isSpyToggle() ? "spy-enabled" : "spy-disabled");
+                            sendMessage(player, user.isSpyToggle() ? Message.SPY_ENABLED : Message.SPY_DISABLED);
                             PartyChat.getDataHandler().addToUserMap(user);
                             return true;
                         case "bugreport":
-                            sendMessage(sender, "getting-log");
+                            sendMessage(sender, Message.GETTING_LOG);
                             StringBuilder contentBuilder = new StringBuilder();
                             contentBuilder.append("Log file for ").append(java.time.LocalDate.now().toString())
                                     .append(" submitted by ").append(sender.getName()).append("\n")
@@ -110,142 +113,89 @@ public class PartyChatCommand implements TabCompleter, CommandExecutor {
 
                                 JSONParser parser = new JSONParser();
                                 JSONObject json = (JSONObject) parser.parse(Objects.requireNonNull(response.body()).string());
-                                sendMessageWithReplacement(sender, "bug-report", "%link%",
+                                sendMessageWithReplacement(sender, Message.BUG_REPORT, "%link%",
                                         "https://paste.majek.dev/" + json.get("key"));
                             }
                             return true;
                         case "edit":
                             if (args.length == 1) {
-                                sendMessage(sender, "specify-subcommand"); return true;
+                                sendMessage(sender, Message.SPECIFY_SUBCOMMAND); return true;
                             } else if (args.length == 2) {
-                                sendMessage(sender, "specify-field"); return true;
+                                sendMessage(sender, Message.SPECIFY_FIELD); return true;
                             }
                             PartyCommand partyCommand = PartyChat.getCommandHandler().getCommand(args[1]);
                             if (partyCommand == null) {
-                                sendMessage(sender, "invalid-arg");
+                                sendMessage(sender, Message.INVALID_ARG);
                                 return true;
                             }
                             if (args[2].equalsIgnoreCase("cooldown")) {
                                 if (args.length == 3) {
-                                    int value = PartyCommand.getSubCommandCooldown(args[1]);
-                                    sendMessageWithReplacement(sender, "current-value",
-                                            "%value%", String.valueOf(value)); return true;
+                                    sendMessageWithReplacement(sender, Message.CURRENT_VALUE,
+                                            "%value%", String.valueOf(partyCommand.getCooldown())); return true;
                                 }
                                 int cooldown;
                                 try  {
                                     cooldown = Integer.parseInt(args[3]);
                                 } catch (NumberFormatException ex) {
-                                    sendMessage(sender, "invalid-arg"); return true;
+                                    sendMessage(sender, Message.INVALID_ARG); return true;
                                 }
                                 partyCommand.setCooldown(cooldown);
-
-                                File file = new File(PartyChat.getCore().getDataFolder(), "commands.yml");
-                                String fileContents = "null";
-                                StringBuilder newConfig = new StringBuilder();
-                                try {
-                                    BufferedReader reader = new BufferedReader(new FileReader(file));
-                                    boolean found = false;
-                                    for (String line : reader.lines().collect(Collectors.toList())) {
-                                        if (line.equalsIgnoreCase("  " + args[1] + ":")) {
-                                            found = true;
-                                            newConfig.append(line).append("\n");
-                                            continue;
-                                        }
-                                        if (found) {
-                                            if (line.contains("cooldown")) {
-                                                line = "    cooldown: " + cooldown;
-                                                found = false;
-                                            }
-                                        }
-                                        newConfig.append(line).append("\n");
-                                    }
-                                    fileContents = newConfig.toString();
-                                } catch (FileNotFoundException e) {
-                                    e.printStackTrace();
-                                }
-                                try {
-                                    FileWriter writer = new FileWriter(file);
-                                    writer.write(fileContents);
-                                    writer.flush();
-                                    writer.close();
-                                } catch (IOException e) {
-                                    e.printStackTrace();
-                                }
-
-                                PartyChat.getDataHandler().reload();
-                                PartyCommand.reload();
-                                PartyChatCommand.reload();
-                                sendMessage(sender, "updated-value"); return true;
+                                saveCommandField(partyCommand, "cooldown", cooldown);
+                                sendMessage(sender, Message.UPDATED_VALUE); return true;
                             }
                             else if (args[2].equalsIgnoreCase("disabled")) {
                                 if  (args.length == 3) {
-                                    boolean value = PartyCommand.getSubCommandDisabled(args[1]);
-                                    sendMessageWithReplacement(sender, "current-value",
-                                            "%value%", String.valueOf(value)); return true;
+                                    sendMessageWithReplacement(sender, Message.CURRENT_VALUE,
+                                            "%value%", String.valueOf(partyCommand.isDisabled())); return true;
                                 }
                                 if (args[3].equalsIgnoreCase("true")
                                         || args[3].equalsIgnoreCase("false")) {
                                     boolean disable = args[3].equalsIgnoreCase("true");
                                     partyCommand.setDisabled(disable);
-                                    Bukkit.getConsoleSender().sendMessage("Setting disabled field for " + partyCommand.getName() + " to " + disable);
-                                    File file = new File(PartyChat.getCore().getDataFolder(), "commands.yml");
-                                    String fileContents = "null";
-                                    StringBuilder newConfig = new StringBuilder();
-                                    try {
-                                        BufferedReader reader = new BufferedReader(new FileReader(file));
-                                        boolean found = false;
-                                        for (String line : reader.lines().collect(Collectors.toList())) {
-                                            if (line.equalsIgnoreCase("  " + args[1] + ":")) {
-                                                found = true;
-                                                newConfig.append(line).append("\n");
-                                                continue;
-                                            }
-                                            if (found) {
-                                                if (line.contains("disabled")) {
-                                                    line = "    disabled: " + disable;
-                                                    Bukkit.getConsoleSender().sendMessage("Changed");
-                                                    found = false;
-                                                }
-                                            }
-                                            newConfig.append(line).append("\n");
-                                        }
-                                        fileContents = newConfig.toString();
-                                    } catch (FileNotFoundException e) {
-                                        e.printStackTrace();
-                                    }
-                                    try {
-                                        FileWriter writer = new FileWriter(file);
-                                        writer.write(fileContents);
-                                        writer.flush();
-                                        writer.close();
-                                    } catch (IOException e) {
-                                        e.printStackTrace();
-                                    }
-
-                                    PartyChat.getDataHandler().reload();
-                                    PartyCommand.reload();
-                                    PartyChatCommand.reload();
-                                    sendMessage(sender, "updated-value");
+                                    saveCommandField(partyCommand, "disabled", disable);
+                                    sendMessage(sender, Message.UPDATED_VALUE);
                                 }  else {
-                                    sendMessage(sender, "invalid-arg");
+                                    sendMessage(sender, Message.INVALID_ARG);
                                 }
                                 return true;
                             } else {
-                                sendMessage(sender, "invalid-arg"); return true;
+                                sendMessage(sender, Message.INVALID_ARG); return true;
                             }
                     }
                 }
 
                 // Don't allow use from console
                 if (!(sender instanceof Player)) {
-                    sendMessage(sender, "no-console"); return true;
+                    sendMessage(sender, Message.NO_CONSOLE); return true;
                 }
                 Player player = (Player) sender;
                 User user = PartyChat.getDataHandler().getUser(player);
 
+                // Let players pick their own language, or go back to their client language with auto
+                if (args.length > 0 && args[0].equalsIgnoreCase("language")
+                        && PartyChat.getDataHandler().getSettings().perPlayerLanguage()) {
+                    if (args.length != 2) {
+                        sendMessage(player, Message.INVALID_ARG);
+                        return true;
+                    }
+                    if (args[1].equalsIgnoreCase("auto")) {
+                        PartyChat.getLanguageHandler().setPlayerLanguage(player.getUniqueId(), null);
+                        sendMessageWithReplacement(player, Message.LANGUAGE_SET, "%language%", "auto");
+                        return true;
+                    }
+                    Language language = PartyChat.getLanguageHandler().findLanguage(args[1]);
+                    if (language == null) {
+                        sendMessage(player, Message.INVALID_ARG);
+                        return true;
+                    }
+                    PartyChat.getLanguageHandler().setPlayerLanguage(player.getUniqueId(), language.getLangID());
+                    sendMessageWithReplacement(player, Message.LANGUAGE_SET, "%language%", language.getLangID());
+                    return true;
+                }
+
                 // Check if the player is not in a party
                 if (!user.isInParty()) {
-                    sendMessage(sender, "not-in-party");
+                    sendMessage(sender, Message.NOT_IN_PARTY);
                     return true;
                 }
 
@@ -256,30 +206,30 @@ public class PartyChatCommand implements TabCompleter, CommandExecutor {
                 if (party == null) {
                     PartyChat.error("Error: PC-CMD_1 | The plugin is fine, but please report this error " +
                             "code here: https://discord.gg/CGgvDUz");
-                    sendMessage(player, "not-in-party"); return true;
+                    sendMessage(player, Message.NOT_IN_PARTY); return true;
                 }
 
                 // Toggle party chat if there are no args
                 if (args.length == 0) {
                     user.flipPartyChatToggle();
-                    sendMessage(player, user.partyChatToggle() ? "pc-enabled" : "pc-disabled");
+                    sendMessage(player, user.partyChatToggle() ? Message.PC_ENABLED : Message.PC_DISABLED);
                     return true;
                 }
 
                 // Check for args to toggle party chat
                 if (args[0].equalsIgnoreCase("on")) {
                     user.setPartyChatToggle(true);
-                    sendMessage(player, "pc-enabled");
+                    sendMessage(player, Message.PC_ENABLED);
                     return true;
                 } else if (args[0].equalsIgnoreCase("off")) {
                     user.setPartyChatToggle(false);
-                    sendMessage(player, "pc-disabled");
+                    sendMessage(player, Message.PC_DISABLED);
                     return true;
                 }
 
                 // Check if the player is currently muted
                 if (Restrictions.isMuted(player)) {
-                    sendMessage(player, "muted"); return true;
+                    sendMessage(player, Message.MUTED); return true;
                 }
 
                 // Build the message to send
@@ -287,27 +237,22 @@ public class PartyChatCommand implements TabCompleter, CommandExecutor {
                 for (String arg : args) {
                     message.append(arg).append(" ");
                 }
-                // This is used so staff don't get the message twice
-                List<Player> messageReceived = new ArrayList<>();
-
                 // Log message to console if that's enabled
-                if (PartyChat.getDataHandler().getConfigBoolean(mainConfig, "console-log"))
-                    sendMessageWithEverything(Bukkit.getConsoleSender(), "spy-format", "%partyName%",
+                if (PartyChat.getDataHandler().getSettings().consoleLog())
+                    sendMessageWithEverything(Bukkit.getConsoleSender(), Message.SPY_FORMAT, "%partyName%",
                             Chat.removeColorCodes(party.getName()), "%player%", player.getName(), message.toString());
 
-                // Send message to party members
-                party.getMembers().stream().map(User::getPlayer).filter(Objects::nonNull).forEach(member -> {
-                    sendMessageWithEverything(member, "message-format", "%partyName%",
-                            party.getName(), "%player%", player.getDisplayName(), message.toString());
-                    messageReceived.add(member);
-                });
+                // Send message to party members, rendered once per language
+                List<Player> members = party.getOnlineMembers();
+                broadcastMessage(members, Message.MESSAGE_FORMAT, message.toString(), "%partyName%",
+                        party.getName(), "%player%", player.getDisplayName());
 
-                // Send message to server staff
-                PartyChat.getDataHandler().getUserMap().values().stream().filter(User::isSpyToggle).map(User::getPlayer)
-                        .filter(Objects::nonNull).filter(staff -> !messageReceived.contains(staff))
-                        .forEach(staff -> sendMessageWithEverything(staff, "spy-format",
-                                "%partyName%", Chat.removeColorCodes(party.getName()), "%player%",
-                                player.getName(), message.toString()));
+                // Send message to server staff, skipping staff in the party so they don't get the message twice
+                List<Player> staff = PartyChat.getDataHandler().getUserMap().values().stream()
+                        .filter(User::isSpyToggle).map(User::getPlayer).filter(Objects::nonNull)
+                        .filter(spy -> !party.hasMember(spy.getUniqueId())).collect(Collectors.toList());
+                broadcastMessage(staff, Message.SPY_FORMAT, message.toString(), "%partyName%",
+                        Chat.removeColorCodes(party.getName()), "%player%", player.getName());
 
                 PartyChat.getDataHandler().addToUserMap(user);
                 return true;
@@ -319,9 +264,9 @@ public class PartyChatCommand implements TabCompleter, CommandExecutor {
                 error.append("    at ").append(ste.toString()).append('\n');
             String errorString = error.toString();
             if (sender.hasPermission("partychat.admin"))
-                sendMessageWithReplacement(sender, "command-error-staff", "%command%", commandString);
+                sendMessageWithReplacement(sender, Message.COMMAND_ERROR_STAFF, "%command%", commandString);
             else
-                sendMessageWithReplacement(sender, "command-error", "%command%", commandString);
+                sendMessageWithReplacement(sender, Message.COMMAND_ERROR, "%command%", commandString);
             PartyChat.error("There was an error executing command " + commandString);
             PartyChat.error(errorString);
             ex.printStackTrace();
@@ -329,6 +274,27 @@ public class PartyChatCommand implements TabCompleter, CommandExecutor {
         return false;
     }
 
+    /**
+     * Save a changed party subcommand field. The in memory config and settings are updated right away, then
+     * only that line of commands.yml is rewritten on a background thread.
+     * @param command The subcommand that changed.
+     * @param field The field under the subcommand's section, e.g. cooldown.
+     * @param value The new value.
+     */
+    private static void saveCommandField(PartyCommand command, String field, Object value) {
+        String path = "party-subcommands." + command.getName() + "." + field;
+        PartyChat.getDataHandler().commandConfig.set(path, value);
+        PartyChat.getDataHandler().refreshSettings();
+        File file = new File(PartyChat.getCore().getDataFolder(), "commands.yml");
+        YAMLPatcher.patchAsync(file.toPath(), path, value).whenComplete((found, error) -> {
+            if (error != null) {
+                PartyChat.error("Unable to save " + path + " to commands.yml");
+                error.printStackTrace();
+            } else if (!found)
+                PartyChat.error("Unable to find " + path + " in commands.yml, the change won't be saved.");
+        });
+    }
+
     @Override
     public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command,
                                       @NotNull String alias, @NotNull String[] args) throws IllegalArgumentException {
@@ -350,8 +316,14 @@ public class PartyChatCommand implements TabCompleter, CommandExecutor {
                 return Collections.emptyList();
         } else {
             if (args.length == 1)
-                return TabCompleterBase.filterStartingWith(args[0], Arrays.asList("on", "off"));
-            else
+                return TabCompleterBase.filterStartingWith(args[0], PartyChat.getDataHandler().getSettings()
+                        .perPlayerLanguage() ? Arrays.asList("on", "off", "language") : Arrays.asList("on", "off"));
+            else if (args.length == 2 && args[0].equalsIgnoreCase("language")
+                    && PartyChat.getDataHandler().getSettings().perPlayerLanguage()) {
+                List<String> languages = new ArrayList<>(PartyChat.getLanguageHandler().getLangMap().keySet());
+                languages.add("auto");
+                return TabCompleterBase.filterStartingWith(args[1], languages);
+            } else
                 return Collections.emptyList();
         }
     }
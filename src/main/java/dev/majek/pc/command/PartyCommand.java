@@ -2,13 +2,20 @@ package dev.majek.pc.command;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.data.DataHandler;
-import dev.majek.pc.data.object.Cooldown;
-import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.Restrictions;
+import dev.majek.pc.data.object.Invitation;
+import dev.majek.pc.data.object.Language;
+import dev.majek.pc.data.object.Message;
+import dev.majek.pc.data.object.MessageTemplate;
+import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
+import dev.majek.pc.gui.GuiInParty;
+import dev.majek.pc.gui.GuiPartyBrowser;
 import dev.majek.pc.util.*;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.bungeecord.BungeeComponentSerializer;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.md_5.bungee.api.chat.BaseComponent;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -38,10 +45,6 @@ public abstract class PartyCommand implements CommandExecutor, TabCompleter {
      * PartyChat's main config file.
      */
     public static FileConfiguration mainConfig = PartyChat.getDataHandler().mainConfig;
-    /**
-     * Map in a map for cooldown storage.
-     */
-    public static Map<Player, Map<PartyCommand, Cooldown>> cooldownMap = new HashMap<>();
 
     protected PartyCommand(String name, String usage, String description, boolean requiresLeader, boolean disabled,
                            int cooldown, List<String> aliases) {
@@ -84,24 +87,34 @@ public abstract class PartyCommand implements CommandExecutor, TabCompleter {
 
                 // Don't allow use from console
                 if (!(sender instanceof Player)) {
-                    sendMessage(sender, "no-console"); return true;
+                    sendMessage(sender, Message.NO_CONSOLE); return true;
                 }
                 Player player = (Player) sender;
 
                 // Check if the admins wants to use permissions
                 // Ignore this whole section if they have admin perms
-                if (PartyChat.getDataHandler().getConfigBoolean(mainConfig, "use-permissions")
+                if (PartyChat.getDataHandler().getSettings().usePermissions()
                         && !player.hasPermission("partychat.admin"))
                     if (!player.hasPermission("partychat.use")) {
-                        sendMessage(player, "no-permission"); return true;
+                        sendMessage(player, Message.NO_PERMISSION); return true;
                     }
 
+                // Open the party GUI, or the public party browser if they aren't in a party
+                if (args.length == 0 && !PartyChat.getDataHandler().disableGuis) {
+                    Party party = PartyChat.getDataHandler().getUser(player).getParty();
+                    if (party == null)
+                        new GuiPartyBrowser(player).openGui(player);
+                    else
+                        new GuiInParty(player, party).openGui(player);
+                    return true;
+                }
+
                 if (args.length > 0) {
 
                     // Get the specified subcommand
                     PartyCommand partyCommand = PartyChat.getCommandHandler().getCommand(args[0].toLowerCase());
                     if (partyCommand == null) {
-                        sendMessage(player, "unknown-command");
+                        sendMessage(player, Message.UNKNOWN_COMMAND);
                         return true;
                     }
 
@@ -113,11 +126,8 @@ public abstract class PartyCommand implements CommandExecutor, TabCompleter {
                     boolean executedFully = partyCommand.execute(player, args, false);
 
                     // Put the command on cooldown if it completely executed
-                    if (executedFully) {
-                        Map<PartyCommand, Cooldown> newMap = new HashMap<>();
-                        newMap.put(partyCommand, new Cooldown(partyCommand));
-                        cooldownMap.put(player, newMap);
-                    }
+                    if (executedFully)
+                        PartyChat.getCooldownHandler().startCooldown(player, partyCommand);
                 }
             }
         } catch (Exception ex) {
@@ -127,9 +137,9 @@ public abstract class PartyCommand implements CommandExecutor, TabCompleter {
                 error.append("    at ").append(ste.toString()).append('\n');
             String errorString = error.toString();
             if (sender.hasPermission("partychat.admin"))
-                sendMessageWithReplacement(sender, "command-error-staff", "%command%", commandString);
+                sendMessageWithReplacement(sender, Message.COMMAND_ERROR_STAFF, "%command%", commandString);
             else
-                sendMessageWithReplacement(sender, "command-error", "%command%", commandString);
+                sendMessageWithReplacement(sender, Message.COMMAND_ERROR, "%command%", commandString);
             PartyChat.error("There was an error executing command " + commandString);
             PartyChat.error(errorString);
             ex.printStackTrace();
@@ -165,12 +175,13 @@ public abstract class PartyCommand implements CommandExecutor, TabCompleter {
             PartyCommand partyCommand = PartyChat.getCommandHandler().getCommand(args[0]);
             if (partyCommand == null)
                 return Collections.emptyList();
+            Party party = PartyChat.getPartyHandler().getParty(user);
             switch (partyCommand.getName()) {
                 case "accept":
                 case "deny":
-                    return (user.isLeader() || player.hasPermission("partychat.bypass")) ? TabCompleterBase.filterStartingWith(args[1], PartyChat.getPartyHandler()
-                            .getParty(player).getPendingInvitations().stream().map(Pair::getFirst)
-                            .map(Player::getName)) : Collections.emptyList();
+                    return party != null && (user.isLeader() || player.hasPermission("partychat.bypass")) ? TabCompleterBase.filterStartingWith(args[1],
+                            party.getPendingInvitations().stream().map(Invitation::getInvited)
+                            .map(Bukkit::getPlayer).filter(Objects::nonNull).map(Player::getName)) : Collections.emptyList();
                 case "help":
                     return TabCompleterBase.filterStartingWith(args[1], Arrays.asList("1", "2"));
                 case "toggle":
@@ -185,12 +196,11 @@ public abstract class PartyCommand implements CommandExecutor, TabCompleter {
                             !Restrictions.isVanished(Bukkit.getPlayerExact(person))).collect(Collectors.toList());
                 case "promote":
                 case "remove":
-                    return (user.isLeader() || player.hasPermission("partychat.bypass")) ? TabCompleterBase.filterStartingWith(args[1], PartyChat.getPartyHandler()
-                            .getParty(user).getMembers().stream().map(User::getUsername))
+                    return party != null && (user.isLeader() || player.hasPermission("partychat.bypass")) ? TabCompleterBase.filterStartingWith(args[1],
+                            party.getMembers().stream().map(User::getUsername))
                             : Collections.emptyList();
                 case "join":
-                    return TabCompleterBase.filterStartingWith(args[1], PartyChat.getPartyHandler().getPartyMap()
-                            .values().stream().distinct().filter(Party::isPublic).map(Party::getRawName));
+                    return PartyChat.getPartyHandler().getSnapshot().getPublicPartyNames(args[1]);
                 default:
                     return Collections.emptyList();
             }
@@ -207,18 +217,18 @@ public abstract class PartyCommand implements CommandExecutor, TabCompleter {
         User user = PartyChat.getDataHandler().getUser(player);
         if (this.requiresLeader() && !user.isLeader() && !player.hasPermission("partychat.bypass")) {
             if (!user.isInParty())
-                sendMessage(player, "not-in-party");
+                sendMessage(player, Message.NOT_IN_PARTY);
             else
-                sendMessage(player, "not-leader");
+                sendMessage(player, Message.NOT_LEADER);
             return false;
-        } else if (cooldownMap.get(player) != null && cooldownMap.get(player).containsKey(this)
-                && !cooldownMap.get(player).get(this).isFinished()) {
-            sendMessageWithReplacement(player, "cooldown", "%time%", TimeInterval
-                    .formatTime(cooldownMap.get(player).get(this)
-                            .getTimeRemaining() * 1000L, false));
+        } else if (PartyChat.getCooldownHandler().isOnCooldown(player, this)) {
+            // Round up to the next second so we never show 0 seconds remaining
+            long remaining = PartyChat.getCooldownHandler().getTimeRemaining(player, this);
+            sendMessageWithReplacement(player, Message.COOLDOWN, "%time%", TimeInterval
+                    .formatTime((remaining + 999) / 1000 * 1000L, false));
             return false;
         } else if (this.isDisabled()) {
-            sendMessage(player, "command-disabled");
+            sendMessage(player, Message.COMMAND_DISABLED);
             return false;
         } else
             return true;
@@ -262,59 +272,100 @@ public abstract class PartyCommand implements CommandExecutor, TabCompleter {
     }
 
     /**
-     * Send a player a message from the messages config file (this will be set to the correct language).
-     * Replace the %prefix% placeholder with the defined prefix in the file.
+     * Send a message to several players/console at once. The message is only parsed once.
+     * @param recipients The players/console to send the message to.
+     * @param message The message.
+     */
+    public static void sendFormattedMessage(Collection<? extends CommandSender> recipients, String message) {
+        Iterator<? extends CommandSender> iterator = recipients.iterator();
+        if (!iterator.hasNext())
+            return;
+        if (PartyChat.getDataHandler().messageType == null)
+            sendFormattedMessage(iterator.next(), message); // Figures out the message type
+        if (!iterator.hasNext())
+            return;
+        switch (PartyChat.getDataHandler().messageType) {
+            case COMPONENT:
+                Component component = Chat.parseExpression(Chat.applyColorCodes(message));
+                iterator.forEachRemaining(recipient -> recipient.sendMessage(component));
+                break;
+            case BASECOMPONENT:
+                BaseComponent[] components = BungeeComponentSerializer.get().serialize(Chat
+                        .parseExpression(Chat.applyColorCodes(message)));
+                iterator.forEachRemaining(recipient -> recipient.spigot().sendMessage(components));
+                break;
+            case RAW:
+            default:
+                String raw = Chat.applyColorCodes(LegacyComponentSerializer.legacyAmpersand()
+                        .serialize(Chat.parseExpression(Chat.applyColorCodes(message))));
+                iterator.forEachRemaining(recipient -> recipient.sendMessage(raw));
+        }
+    }
+
+    /**
+     * Send a player a message in their language. The %prefix% placeholder is already filled in.
      * @param sender The player/console to send the message to.
-     * @param path The path to get the message from in the file.
+     * @param message The message to send.
      */
-    public static void sendMessage(CommandSender sender, String path) {
-        String prefix = PartyChat.getDataHandler().getConfigString(PartyChat.getDataHandler().messages, "prefix");
-        String message = PartyChat.getDataHandler().getConfigString(PartyChat.getDataHandler().messages, path);
-        message = message.replace("%prefix%", prefix);
-        sendFormattedMessage(sender, message);
+    public static void sendMessage(CommandSender sender, Message message) {
+        sendFormattedMessage(sender, PartyChat.getLanguageHandler().getLanguage(sender).getMessage(message).render());
     }
 
     /**
-     * Send a player a message from the messages config file (this will be set to the correct language)
-     * while replacing a target with a defined string.
+     * Send a player a message in their language while replacing a placeholder with a defined string.
      * @param sender The player/console to send the message to.
-     * @param path The path to get the message from in the file.
-     * @param target The target string to be replaced.
-     * @param replacement The replacement for the target string.
+     * @param message The message to send.
+     * @param target The placeholder to be replaced.
+     * @param replacement The replacement for the placeholder.
      */
-    public static void sendMessageWithReplacement(CommandSender sender, String path, String target, String replacement) {
-        String prefix = PartyChat.getDataHandler().getConfigString(PartyChat.getDataHandler().messages, "prefix");
-        String message = PartyChat.getDataHandler().getConfigString(PartyChat.getDataHandler().messages, path);
-        message = message.replace(target, replacement);
-        message = message.replace("%prefix%", prefix);
-        sendFormattedMessage(sender, message);
+    public static void sendMessageWithReplacement(CommandSender sender, Message message, String target, String replacement) {
+        sendFormattedMessage(sender, PartyChat.getLanguageHandler().getLanguage(sender).getMessage(message)
+                .render(target, replacement));
     }
 
     /**
      * Send a message with replacements and message to send to PartyChat.
      * @param sender Player/console to send the message to.
-     * @param path Path to get from messages config file.
+     * @param message The message to send.
      * @param target1 First placeholder to find and replace.
      * @param replacement1 Replacement for first placeholder.
      * @param target2 Second placeholder to find and replace.
      * @param replacement2 Replacement for second placeholder.
      * @param toAdd Message to add to the end of everything.
      */
-    public static void sendMessageWithEverything(CommandSender sender, String path, String target1, String replacement1,
+    public static void sendMessageWithEverything(CommandSender sender, Message message, String target1, String replacement1,
                                                 String target2, String replacement2, String toAdd) {
-        String prefix = PartyChat.getDataHandler().getConfigString(PartyChat.getDataHandler().messages, "prefix");
-        String message = PartyChat.getDataHandler().getConfigString(PartyChat.getDataHandler().messages, path);
-        message = message.replace(target1, replacement1).replace(target2, replacement2) + toAdd;
-        message = message.replace("%prefix%", prefix);
-        sendFormattedMessage(sender, message);
+        sendFormattedMessage(sender, PartyChat.getLanguageHandler().getLanguage(sender).getMessage(message)
+                .render(target1, replacement1, target2, replacement2) + toAdd);
     }
 
-    public static void runTaskLater(int delay, Runnable task) {
-        try {
-            Bukkit.getScheduler().runTaskLaterAsynchronously(PartyChat.getCore(), task, delay * 20L);
-        } catch (Exception ex) {
-            PartyChat.error("Error running async task. Please consider restarting your server and using /pc bugreport");
-        }
+    /**
+     * Send a message to several players/console at once, e.g. a whole party. The message is rendered once per
+     * language used by the recipients rather than once per recipient.
+     * @param recipients The players/console to send the message to.
+     * @param message The message to send.
+     * @param toAdd Text to add to the end of the message.
+     * @param replacements Pairs of placeholders and their replacements.
+     */
+    public static void broadcastMessage(Collection<? extends CommandSender> recipients, Message message,
+                                        String toAdd, String... replacements) {
+        Map<Language, List<CommandSender>> byLanguage = new IdentityHashMap<>();
+        for (CommandSender recipient : recipients)
+            byLanguage.computeIfAbsent(PartyChat.getLanguageHandler().getLanguage(recipient),
+                    language -> new ArrayList<>()).add(recipient);
+        byLanguage.forEach((language, group) -> sendFormattedMessage(group,
+                language.getMessage(message).render(replacements) + toAdd));
+    }
+
+    /**
+     * Send every line of a list message in the recipient's language.
+     * @param sender The player/console to send the message to.
+     * @param message The message to send.
+     * @param replacements Pairs of placeholders and their replacements.
+     */
+    public static void sendMessageList(CommandSender sender, Message message, String... replacements) {
+        for (MessageTemplate line : PartyChat.getLanguageHandler().getLanguage(sender).getMessageList(message))
+            sendFormattedMessage(sender, line.render(replacements));
     }
 
     public String getName() {
@@ -366,23 +417,22 @@ public abstract class PartyCommand implements CommandExecutor, TabCompleter {
     }
 
     public static String getSubCommandUsage(String command) {
-        return PartyChat.getDataHandler().commandConfig.getString("party-subcommands." + command + ".usage");
+        return PartyChat.getDataHandler().getSettings().getCommand(command).getUsage();
     }
 
     public static String getSubCommandDescription(String command) {
-        return PartyChat.getDataHandler().commandConfig.getString("party-subcommands." + command + ".description");
+        return PartyChat.getDataHandler().getSettings().getCommand(command).getDescription();
     }
 
     public static boolean getSubCommandDisabled(String command) {
-        return PartyChat.getDataHandler().commandConfig.getBoolean("party-subcommands." + command + ".disabled");
+        return PartyChat.getDataHandler().getSettings().getCommand(command).isDisabled();
     }
 
     public static int getSubCommandCooldown(String command) {
-        return PartyChat.getDataHandler().commandConfig.getInt("party-subcommands." + command + ".cooldown");
+        return PartyChat.getDataHandler().getSettings().getCommand(command).getCooldown();
     }
 
     public static List<String> getSubCommandAliases(String command) {
-        return PartyChat.getDataHandler().commandConfig.getStringList("party-subcommands." + command + ".aliases")
-                .stream().filter(alias -> !alias.equalsIgnoreCase("")).collect(Collectors.toList());
+        return PartyChat.getDataHandler().getSettings().getCommand(command).getAliases();
     }
 }
@@ -2,18 +2,14 @@ package dev.majek.pc.command.party;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
-import dev.majek.pc.data.object.Bar;
+import dev.majek.pc.data.object.Invitation;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
 import dev.majek.pc.api.PartyJoinEvent;
-import dev.majek.pc.util.Pair;
-import dev.majek.pc.util.Utils;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
-import java.util.Objects;
-
 public class PartyAccept extends PartyCommand {
 
     public PartyAccept() {
@@ -33,18 +29,15 @@ public class PartyAccept extends PartyCommand {
         if (!user.isInParty()) {
 
             // Check for pending invitations
-            Party party = null;
-            for (Party check : PartyChat.getPartyHandler().getPartyMap().values())
-                for (Pair<Player, Player> players : check.getPendingInvitations())
-                    if (players.getFirst() == player) {
-                        party = check; break;
-                    }
+            Invitation invitation = PartyChat.getPartyHandler().getInvitation(player);
 
             // Player has no pending invitations
-            if (party == null) {
-                sendMessage(player, "no-invites"); return false;
+            if (invitation == null) {
+                sendMessage(player, Message.NO_INVITES); return false;
             }
 
+            Party party = invitation.getParty();
+
             // Run PartyJoinEvent
             PartyJoinEvent event = new PartyJoinEvent(player, party);
             PartyChat.getCore().getServer().getPluginManager().callEvent(event);
@@ -52,19 +45,12 @@ public class PartyAccept extends PartyCommand {
                 return false;
 
             // Send messages
-            for (User memberUser : party.getMembers()) {
-                Player member = memberUser.getPlayer();
-                if (member == null)
-                    continue;
-                sendMessageWithReplacement(member, "player-join", "%player%", player.getDisplayName());
-            }
-            sendMessageWithReplacement(player, "you-join", "%partyName%", party.getName());
+            broadcastMessage(party.getOnlineMembers(), Message.PLAYER_JOIN, "", "%player%", player.getDisplayName());
+            sendMessageWithReplacement(player, Message.YOU_JOIN, "%partyName%", party.getName());
 
             // Put the player in the party
-            party.removePendingInvitation(player);
-            user.setInParty(true);
-            user.setPartyID(party.getId());
-            party.addMember(user);
+            party.removePendingInvitation(player.getUniqueId());
+            PartyChat.getPartyHandler().addMember(party, user);
 
             // Update the database if persistent parties is enabled
             if (PartyChat.getDataHandler().persistentParties)
@@ -78,71 +64,51 @@ public class PartyAccept extends PartyCommand {
             if (party == null) {
                 PartyChat.error("Error: PC-ACPT_1 | The plugin is fine, but please report this error " +
                         "code here: https://discord.gg/CGgvDUz");
-                sendMessage(player, "error"); return false;
+                sendMessage(player, Message.ERROR); return false;
             }
 
             // Check if the player has a pending summon request
-            if (party.getPendingSummons().contains(player)) {
-                // Create teleport bar
-                Bar bar = new Bar();
-                int teleportDelay = PartyChat.getDataHandler().getConfigInt(mainConfig, "summon-teleport-time");
-                bar.createBar(teleportDelay); bar.addPlayer(player);
-
+            if (party.hasPendingSummons(player.getUniqueId())) {
                 // Get the party leader
                 Player leader = Bukkit.getPlayer(party.getLeader());
                 if (leader == null) {
-                    sendMessage(player, "leader-offline"); return false;
+                    sendMessage(player, Message.LEADER_OFFLINE); return false;
                 }
 
                 // Get ready to teleport, send messages
                 if (party.getSize() <= 5)
-                    sendMessageWithReplacement(leader, "teleport-accepted",
+                    sendMessageWithReplacement(leader, Message.TELEPORT_ACCEPTED,
                             "%player%", player.getDisplayName());
-                sendMessage(player, "teleport-prepare");
-                party.removePendingSummons(player); user.setNoMove(true);
-
-                // Delay the teleport.
-                Bukkit.getScheduler().scheduleSyncDelayedTask(PartyChat.getCore(), () -> {
-                    // Make sure the player didn't move
-                    if (user.isNoMove()) {
-                        // Make sure the location is safe
-                        Location safe = Utils.findSafe(leader.getLocation(),
-                                leader.getLocation().getBlockY()-5, 256);
-                        if (safe == null)
-                            sendMessage(player, "teleport-unsafe");
-                        // Teleport player
-                        else {
-                            player.teleport(safe);
-                            sendMessage(player, "teleported");
-                        }
-                        bar.removePlayer(player);
-                        user.setNoMove(false);
-                    }
-                }, teleportDelay * 20L);
+                sendMessage(player, Message.TELEPORT_PREPARE);
+                party.removePendingSummons(player.getUniqueId());
+
+                // Delay the teleport, it's canceled if the player moves
+                int teleportDelay = PartyChat.getDataHandler().getSettings().getSummonTeleportTime();
+                PartyChat.getTeleportHandler().startCountdown(player, leader, teleportDelay);
 
                 return true;
             }
 
             // Check if the player is a leader accepting a join request
-            else if (party.getPendingJoinRequests().size() > 0) {
+            else if (!party.getPendingJoinRequests().isEmpty()) {
 
                 // Only leaders can accept join requests
                 if (!user.isLeader()) {
-                    sendMessage(player, "in-party"); return false;
+                    sendMessage(player, Message.IN_PARTY); return false;
                 }
 
                 Player toAccept;
                 // Check if the leader doesn't specify a player to accept
                 if (args.length == 1) {
                     if (party.getPendingJoinRequests().size() == 1) {
-                        toAccept = party.getPendingJoinRequests().get(0);
+                        toAccept = Bukkit.getPlayer(party.getPendingJoinRequests().iterator().next());
                     } else {
-                        sendMessage(player, "specify-player"); return false;
+                        sendMessage(player, Message.SPECIFY_PLAYER); return false;
                     }
                 } else {
                     toAccept = Bukkit.getPlayer(args[1]);
-                    if (!party.getPendingJoinRequests().contains(toAccept) || toAccept == null) {
-                        sendMessage(player, "no-request"); return false;
+                    if (toAccept == null || !party.hasPendingJoinRequest(toAccept.getUniqueId())) {
+                        sendMessage(player, Message.NO_REQUEST); return false;
                     }
                 }
 
@@ -155,15 +121,13 @@ public class PartyAccept extends PartyCommand {
                     return false;
 
                 // Send messages
-                sendMessageWithReplacement(toAccept, "you-join", "%partyName%", party.getName());
-                party.getMembers().stream().map(User::getPlayer).filter(Objects::nonNull).forEach(member ->
-                        sendMessageWithReplacement(member, "player-join", "%player%", toAccept.getDisplayName()));
+                sendMessageWithReplacement(toAccept, Message.YOU_JOIN, "%partyName%", party.getName());
+                broadcastMessage(party.getOnlineMembers(), Message.PLAYER_JOIN, "", "%player%",
+                        toAccept.getDisplayName());
 
                 // Put the player in the party
-                party.removePendingJoinRequest(toAccept);
-                newUser.setInParty(true);
-                newUser.setPartyID(party.getId());
-                party.addMember(newUser);
+                party.removePendingJoinRequest(toAccept.getUniqueId());
+                PartyChat.getPartyHandler().addMember(party, newUser);
 
                 // Update the database if persistent parties is enabled
                 if (PartyChat.getDataHandler().persistentParties)
@@ -171,7 +135,7 @@ public class PartyAccept extends PartyCommand {
 
                 return true;
             } else {
-                sendMessage(player, "no-usage"); return false;
+                sendMessage(player, Message.NO_USAGE); return false;
             }
         }
     }
@@ -2,9 +2,9 @@ package dev.majek.pc.command.party;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.data.ExpiryHandler;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
-import dev.majek.pc.data.object.User;
-import dev.majek.pc.util.Pair;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
@@ -13,7 +13,7 @@ public class PartyAdd extends PartyCommand {
     public PartyAdd() {
         super(
                 "add", getSubCommandUsage("add"), getSubCommandDescription("add"),
-                getConfigBoolean("only-leader-can-add"), getSubCommandDisabled("add"),
+                PartyChat.getDataHandler().getSettings().onlyLeaderCanAdd(), getSubCommandDisabled("add"),
                 getSubCommandCooldown("add"), getSubCommandAliases("add")
         );
     }
@@ -23,12 +23,12 @@ public class PartyAdd extends PartyCommand {
 
         // Make sure the player is actually in a party
         if (!PartyChat.getDataHandler().getUser(player).isInParty()) {
-            sendMessage(player, "not-in-party"); return false;
+            sendMessage(player, Message.NOT_IN_PARTY); return false;
         }
 
         // Make sure the player specifies the player they wish to invite
         if (args.length == 1) {
-            sendMessage(player, "specify-player"); return false;
+            sendMessage(player, Message.SPECIFY_PLAYER); return false;
         }
 
         return execute(player, args[1]);
@@ -42,53 +42,42 @@ public class PartyAdd extends PartyCommand {
         if (party == null) {
             PartyChat.error("Error: PC-ADD_1 | The plugin is fine, but please report this error " +
                     "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error"); return false;
+            sendMessage(player, Message.ERROR); return false;
         }
 
         // Try to get specified player to invite
         Player invited = Bukkit.getPlayer(name);
         if (invited == null) {
-            sendMessage(player, "not-online"); return false;
+            sendMessage(player, Message.NOT_ONLINE); return false;
         }
 
         // Player did /party add <their name>
         if (invited == player) {
-            sendMessage(player, "add-self"); return false;
+            sendMessage(player, Message.ADD_SELF); return false;
         }
 
         // Check if the player is trying to invite someone who is already in the party
-        for (User user : party.getMembers()) {
-            Player member = user.getPlayer();
-            if (member == invited) {
-                sendMessage(player, "player-in-party"); return false;
-            }
+        if (party.hasMember(invited.getUniqueId())) {
+            sendMessage(player, Message.PLAYER_IN_PARTY); return false;
         }
 
         // Passed all checks, send messages
-        for (String message : PartyChat.getDataHandler().getConfigStringList(PartyChat
-                .getDataHandler().messages, "invite-message")) {
-            sendFormattedMessage(invited, message.replace("%prefix%", PartyChat.getDataHandler()
-                    .getConfigString(PartyChat.getDataHandler().messages, "prefix"))
-                    .replace("%partyName%", party.getRawName())
-                    .replace("%player%", player.getDisplayName()));
-        }
-        sendMessageWithReplacement(player, "invite-sent", "%player%", invited.getDisplayName());
+        sendMessageList(invited, Message.INVITE_MESSAGE, "%partyName%", party.getRawName(),
+                "%player%", player.getDisplayName());
+        sendMessageWithReplacement(player, Message.INVITE_SENT, "%player%", invited.getDisplayName());
         Player leader = Bukkit.getPlayer(party.getLeader());
         if (leader != null && leader.isOnline() && player != leader)
-            sendMessageWithReplacement(leader, "invite-sent", "%player%", invited.getDisplayName());
+            sendMessageWithReplacement(leader, Message.INVITE_SENT, "%player%", invited.getDisplayName());
         party.addPendingInvitation(invited, player);
 
-        // Check after the expire time if the player still hasn't accepted or declined
-        int expireTime = PartyChat.getDataHandler().getConfigInt(mainConfig, "invite-expire-time");
-        if (expireTime != -1) {
-            runTaskLater(expireTime, () -> {
-                for (Pair<Player, Player> players : party.getPendingInvitations())
-                    if (players.getFirst() == invited) {
-                        party.removePendingInvitation(invited);
-                        sendMessage(invited, "expired-invite");
-                    }
-            });
-        }
+        // Expire the invitation if the player still hasn't accepted or declined after the expire time
+        int expireTime = PartyChat.getDataHandler().getSettings().getInviteExpireTime();
+        PartyChat.getExpiryHandler().schedule(ExpiryHandler.Type.INVITATION, party.getId(), invited.getUniqueId(),
+                expireTime, () -> {
+                    party.removePendingInvitation(invited.getUniqueId());
+                    if (invited.isOnline())
+                        sendMessage(invited, Message.EXPIRED_INVITE);
+                });
 
         return true;
     }
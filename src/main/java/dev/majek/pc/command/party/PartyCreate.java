@@ -3,6 +3,8 @@ package dev.majek.pc.command.party;
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
 import dev.majek.pc.data.Restrictions;
+import dev.majek.pc.data.object.Message;
+import dev.majek.pc.data.object.MessageTemplate;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.api.PartyCreateEvent;
 import dev.majek.pc.util.Chat;
@@ -25,13 +27,13 @@ public class PartyCreate extends PartyCommand {
 
         // Check if the player is already in a party
         if (PartyChat.getDataHandler().getUser(player).isInParty()) {
-            sendMessage(player, "in-party");
+            sendMessage(player, Message.IN_PARTY);
             return false;
         }
 
         // Make sure the player specifies a party name
         if (args.length == 1) {
-            sendMessage(player, "no-name");
+            sendMessage(player, Message.NO_NAME);
             return false;
         }
 
@@ -42,22 +44,22 @@ public class PartyCreate extends PartyCommand {
     public static boolean execute(Player player, String name) {
         // Check if a party with that name already exists
         if (PartyChat.getPartyHandler().isNameTaken(name)) {
-            sendMessage(player, "name-taken");
+            sendMessage(player, Message.NAME_TAKEN);
             return false;
         }
 
         // Check if the server is blocking inappropriate names and block them if the name contains them
-        if (PartyChat.getDataHandler().getConfigBoolean(mainConfig, "block-inappropriate-names")) {
+        if (PartyChat.getDataHandler().getSettings().blockInappropriateNames()) {
             if (Restrictions.containsCensoredWord(name)) {
-                sendMessage(player, "inappropriate-name");
+                sendMessage(player, Message.INAPPROPRIATE_NAME);
                 return false;
             }
         }
 
         // Check if the party name exceeds the character limit defined in the config file
         if (Chat.removeColorCodes(name).length() > PartyChat.getDataHandler()
-                .getConfigInt(mainConfig, "max-name-length")) {
-            sendMessage(player, "name-too-long");
+                .getSettings().getMaxNameLength()) {
+            sendMessage(player, Message.NAME_TOO_LONG);
             return false;
         }
 
@@ -74,12 +76,9 @@ public class PartyCreate extends PartyCommand {
         PartyChat.getPartyHandler().addToPartyMap(party.getId(), party);
         PartyChat.getDataHandler().getUser(player).setPartyID(party.getId());
         PartyChat.getDataHandler().getUser(player).setInParty(true);
-        for (String message : PartyChat.getDataHandler().getConfigStringList(PartyChat
-                .getDataHandler().messages, "party-created")) {
-            player.sendMessage(Chat.applyColorCodes(message.replace("%prefix%", PartyChat
-                    .getDataHandler().getConfigString(PartyChat.getDataHandler().messages, "prefix"))
-                    .replace("%partyName%", name)));
-        }
+        for (MessageTemplate message : PartyChat.getLanguageHandler().getLanguage(player)
+                .getMessageList(Message.PARTY_CREATED))
+            player.sendMessage(Chat.applyColorCodes(message.render("%partyName%", name)));
 
         // Update the database if persistent parties is enabled
         if (PartyChat.getDataHandler().persistentParties) {
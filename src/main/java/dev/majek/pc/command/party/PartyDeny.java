@@ -2,9 +2,10 @@ package dev.majek.pc.command.party;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.data.object.Invitation;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
-import dev.majek.pc.util.Pair;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
@@ -27,28 +28,25 @@ public class PartyDeny extends PartyCommand {
         if (!user.isInParty()) {
 
             // Check for pending invitations
-            Party party = null;
-            Player inviter = null;
-            for (Party check : PartyChat.getPartyHandler().getPartyMap().values())
-                for (Pair<Player, Player> players : check.getPendingInvitations())
-                    if (players.getFirst() == player) {
-                        party = check; inviter = players.getSecond(); break;
-                    }
+            Invitation invitation = PartyChat.getPartyHandler().getInvitation(player);
 
             // Player has no pending invitations
-            if (party == null) {
-                sendMessage(player, "no-invites"); return false;
+            if (invitation == null) {
+                sendMessage(player, Message.NO_INVITES); return false;
             }
 
+            Party party = invitation.getParty();
+            Player inviter = Bukkit.getPlayer(invitation.getInviter());
+
             // Send messages
             Player leader = Bukkit.getPlayer(party.getLeader());
             if (leader != null && leader.isOnline())
-                sendMessageWithReplacement(leader, "decline-join", "%player%", player.getDisplayName());
+                sendMessageWithReplacement(leader, Message.DECLINE_JOIN, "%player%", player.getDisplayName());
             if (inviter != null && inviter.isOnline() && inviter != leader)
-                sendMessageWithReplacement(inviter, "decline-join", "%player%", player.getDisplayName());
-            sendMessage(player, "you-decline");
+                sendMessageWithReplacement(inviter, Message.DECLINE_JOIN, "%player%", player.getDisplayName());
+            sendMessage(player, Message.YOU_DECLINE);
 
-            party.removePendingInvitation(player);
+            party.removePendingInvitation(player.getUniqueId());
 
             return true;
         }
@@ -60,40 +58,40 @@ public class PartyDeny extends PartyCommand {
             if (party == null) {
                 PartyChat.error("Error: PC-DNY_1 | The plugin is fine, but please report this error " +
                         "code here: https://discord.gg/CGgvDUz");
-                sendMessage(player, "error"); return false;
+                sendMessage(player, Message.ERROR); return false;
             }
             Player leader = Bukkit.getPlayer(party.getLeader());
 
             // Check if the player has a pending summon request
-            if (party.getPendingSummons().contains(player)) {
-                sendMessage(player, "teleport-denied-player");
+            if (party.hasPendingSummons(player.getUniqueId())) {
+                sendMessage(player, Message.TELEPORT_DENIED_PLAYER);
                 if (leader != null && leader.isOnline() && player != leader)
-                    sendMessageWithReplacement(leader, "teleport-denied",
+                    sendMessageWithReplacement(leader, Message.TELEPORT_DENIED,
                             "%player%", player.getDisplayName());
-                party.removePendingSummons(player);
+                party.removePendingSummons(player.getUniqueId());
                 return true;
             }
 
             // Check if the player is a leader denying a join request
-            else if (party.getPendingJoinRequests().size() > 0) {
+            else if (!party.getPendingJoinRequests().isEmpty()) {
 
                 // Only leaders can deny join requests
                 if (player.getUniqueId() != party.getLeader()) {
-                    sendMessage(player, "in-party"); return false;
+                    sendMessage(player, Message.IN_PARTY); return false;
                 }
 
                 Player toDeny;
                 // Check if the leader doesn't specify a player to accept
                 if (args.length == 1) {
                     if (party.getPendingJoinRequests().size() == 1) {
-                        toDeny = party.getPendingJoinRequests().get(0);
+                        toDeny = Bukkit.getPlayer(party.getPendingJoinRequests().iterator().next());
                     } else {
-                        sendMessage(player, "specify-player"); return false;
+                        sendMessage(player, Message.SPECIFY_PLAYER); return false;
                     }
                 } else {
                     toDeny = Bukkit.getPlayer(args[1]);
-                    if (!party.getPendingJoinRequests().contains(toDeny)) {
-                        sendMessage(player, "no-request"); return false;
+                    if (toDeny == null || !party.hasPendingJoinRequest(toDeny.getUniqueId())) {
+                        sendMessage(player, Message.NO_REQUEST); return false;
                     }
                 }
 
@@ -101,18 +99,18 @@ public class PartyDeny extends PartyCommand {
                 if (toDeny == null) {
                     PartyChat.error("Error: PC-DNY_2 | The plugin is fine, but please report this error " +
                             "code here: https://discord.gg/CGgvDUz");
-                    sendMessage(player, "error"); return false;
+                    sendMessage(player, Message.ERROR); return false;
                 }
 
                 // Send messages
-                sendMessage(toDeny, "join-denied");
-                sendMessageWithReplacement(player, "deny-join", "%player%", player.getDisplayName());
+                sendMessage(toDeny, Message.JOIN_DENIED);
+                sendMessageWithReplacement(player, Message.DENY_JOIN, "%player%", player.getDisplayName());
 
-                party.removePendingJoinRequest(toDeny);
+                party.removePendingJoinRequest(toDeny.getUniqueId());
 
                 return true;
             } else {
-                sendMessage(player, "no-usage"); return false;
+                sendMessage(player, Message.NO_USAGE); return false;
             }
         }
     }
@@ -2,10 +2,13 @@ package dev.majek.pc.command.party;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
 import org.bukkit.entity.Player;
 
+import java.util.List;
+
 public class PartyDisband extends PartyCommand {
 
     public PartyDisband() {
@@ -25,17 +28,16 @@ public class PartyDisband extends PartyCommand {
         if (party == null) {
             PartyChat.error("Error: PC-DIS_1 | The plugin is fine, but please report this error " +
                     "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error"); return false;
+            sendMessage(player, Message.ERROR); return false;
         }
 
         // Disband the party
+        List<Player> online = party.getOnlineMembers();
         for (User user : party.getMembers()) {
             user.setPartyID(null);
             user.setInParty(false);
-            Player member = user.getPlayer();
-            if (member != null && member.isOnline())
-                sendMessageWithReplacement(member, "party-disbanded", "%partyName%", party.getName());
         }
+        broadcastMessage(online, Message.PARTY_DISBANDED, "", "%partyName%", party.getName());
         PartyChat.getPartyHandler().deleteParty(party);
         PartyChat.getPartyHandler().removeFromPartyMap(party.getId());
 
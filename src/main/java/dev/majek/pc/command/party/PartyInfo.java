@@ -2,6 +2,7 @@ package dev.majek.pc.command.party;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
 import org.bukkit.Bukkit;
@@ -24,7 +25,7 @@ public class PartyInfo extends PartyCommand {
 
         // Make sure player is in a party
         if (!PartyChat.getDataHandler().getUser(player).isInParty()) {
-            sendMessage(player, "not-in-party"); return false;
+            sendMessage(player, Message.NOT_IN_PARTY); return false;
         }
 
         Party party = user.getParty();
@@ -33,12 +34,12 @@ public class PartyInfo extends PartyCommand {
         if (party == null) {
             PartyChat.error("Error: PC-INF_1 | The plugin is fine, but please report this error " +
                     "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error"); return false;
+            sendMessage(player, Message.ERROR); return false;
         }
 
         // If the player is in the party by themself -> leader
         if (party.getSize() == 1) {
-            sendMessageWithEverything(player, "info-leader", "%partyName%", party.getName(),
+            sendMessageWithEverything(player, Message.INFO_LEADER, "%partyName%", party.getName(),
                     "", "", Bukkit.getOfflinePlayer(party.getLeader()).getName());
             return true;
         }
@@ -50,7 +51,7 @@ public class PartyInfo extends PartyCommand {
         String cleanList = memberList.toString().trim().substring(0, memberList.toString().length() - 2);
 
         // Send message
-        sendMessageWithEverything(player, "info-members", "%partyName%", party.getName(),
+        sendMessageWithEverything(player, Message.INFO_MEMBERS, "%partyName%", party.getName(),
                 "%player%", Bukkit.getOfflinePlayer(party.getLeader()).getName(), cleanList);
 
         return true;
@@ -2,10 +2,14 @@ package dev.majek.pc.command.party;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.data.ExpiryHandler;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
+import java.util.UUID;
+
 public class PartyJoin extends PartyCommand {
 
     public PartyJoin() {
@@ -21,74 +25,63 @@ public class PartyJoin extends PartyCommand {
 
         // Check if the player is already in a party
         if (PartyChat.getDataHandler().getUser(player).isInParty()) {
-            sendMessage(player, "in-party"); return false;
+            sendMessage(player, Message.IN_PARTY); return false;
         }
 
         // Player needs to specify a party to join
         if (args.length == 1) {
-            sendMessage(player, "specify-party"); return false;
+            sendMessage(player, Message.SPECIFY_PARTY); return false;
         }
         return execute(player, args[1]);
     }
 
     public static boolean execute(Player player, String partyName) {
         // Try to find the party from the name
-        Party findParty = null;
-        for (Party check : PartyChat.getPartyHandler().getPartyMap().values())
-            if (check.getRawName().equalsIgnoreCase(partyName)) {
-                findParty = check; break;
-            }
+        Party party = PartyChat.getPartyHandler().getPartyByName(partyName);
 
         // Make sure the specified party exists
-        if (findParty == null) {
-            sendMessage(player, "unknown-party"); return false;
+        if (party == null) {
+            sendMessage(player, Message.UNKNOWN_PARTY); return false;
         }
 
-        Party party = findParty;
-
         // Make sure the party is public
         if (!party.isPublic()) {
-            sendMessage(player, "party-private"); return false;
+            sendMessage(player, Message.PARTY_PRIVATE); return false;
         }
 
         // Check if the player is blocked from joining the party
-        if (party.getBlockedPlayers().contains(player)) {
-            sendMessage(player, "join-wait"); return false;
+        if (party.isBlocked(player.getUniqueId())) {
+            sendMessage(player, Message.JOIN_WAIT); return false;
         }
 
         Player leader = Bukkit.getPlayer(party.getLeader());
 
         // Make sure the leader is online
         if (leader == null) {
-            sendMessage(player, "leader-offline"); return false;
+            sendMessage(player, Message.LEADER_OFFLINE); return false;
         }
 
         // Send messages
-        for (String request : PartyChat.getDataHandler().getConfigStringList(PartyChat
-                .getDataHandler().messages, "request-join"))
-            sendFormattedMessage(leader, request.replace("%prefix%", PartyChat.getDataHandler()
-                    .getConfigString(PartyChat.getDataHandler().messages, "prefix"))
-                    .replace("%player%", player.getDisplayName()));
-        sendMessage(player, "request-sent");
+        sendMessageList(leader, Message.REQUEST_JOIN, "%player%", player.getDisplayName());
+        sendMessage(player, Message.REQUEST_SENT);
 
-        party.addPendingJoinRequest(player);
-        party.addBlockedPlayer(player);
+        UUID playerID = player.getUniqueId();
+        party.addPendingJoinRequest(playerID);
+        party.addBlockedPlayer(playerID);
 
         // Remove them from the blocked list after a configured amount of time
-        int blockTime = PartyChat.getDataHandler().getConfigInt(mainConfig, "block-time");
-        if (blockTime != -1)
-            runTaskLater(blockTime, () -> party.removeBlockedPlayer(player));
-
-        // Check after the expire time if the player still hasn't been accepted or declined
-        int expireTime = PartyChat.getDataHandler().getConfigInt(mainConfig, "join-expire-time");
-        if (expireTime != -1) {
-            runTaskLater(expireTime, () -> {
-                if (party.getPendingJoinRequests().contains(player)) {
-                    party.removePendingJoinRequest(player);
-                    sendMessage(player, "expired-join");
-                }
-            });
-        }
+        int blockTime = PartyChat.getDataHandler().getSettings().getBlockTime();
+        PartyChat.getExpiryHandler().schedule(ExpiryHandler.Type.JOIN_BLOCK, party.getId(), playerID,
+                blockTime, () -> party.removeBlockedPlayer(playerID));
+
+        // Expire the request if the player still hasn't been accepted or declined after the expire time
+        int expireTime = PartyChat.getDataHandler().getSettings().getJoinExpireTime();
+        PartyChat.getExpiryHandler().schedule(ExpiryHandler.Type.JOIN_REQUEST, party.getId(), playerID,
+                expireTime, () -> {
+                    party.removePendingJoinRequest(playerID);
+                    if (player.isOnline())
+                        sendMessage(player, Message.EXPIRED_JOIN);
+                });
 
         return true;
     }
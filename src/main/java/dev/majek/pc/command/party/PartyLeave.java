@@ -2,13 +2,12 @@ package dev.majek.pc.command.party;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
-import java.util.Objects;
-import java.util.Random;
 import java.util.stream.Collectors;
 
 public class PartyLeave extends PartyCommand {
@@ -27,7 +26,7 @@ public class PartyLeave extends PartyCommand {
 
         // Player can only leave a party if they're in one
         if (!user.isInParty()) {
-            sendMessage(player, "not-in-party");
+            sendMessage(player, Message.NOT_IN_PARTY);
             return false;
         }
 
@@ -37,34 +36,30 @@ public class PartyLeave extends PartyCommand {
         if (party == null) {
             PartyChat.error("Error: PC-LEV_1 | The plugin is fine, but please report this error " +
                     "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error"); return false;
+            sendMessage(player, Message.ERROR); return false;
         }
 
         if (!leftServer)
-            sendMessageWithReplacement(player, "you-leave", "%partyName%", party.getName());
+            sendMessageWithReplacement(player, Message.YOU_LEAVE, "%partyName%", party.getName());
 
         boolean partyDisbanded = party.getSize() == 1;
-        party.removeMember(user);
+        PartyChat.getPartyHandler().removeMember(party, user);
         if (partyDisbanded)
-            PartyChat.getPartyHandler().removeFromPartyMap(user.getPartyID());
-        user.setPartyID(null);
-        user.setInParty(false);
+            PartyChat.getPartyHandler().removeFromPartyMap(party.getId());
 
         if (!partyDisbanded) {
-            party.getMembers().stream().map(User::getPlayer).filter(Objects::nonNull).forEach(member ->
-                    sendMessageWithReplacement(member, "player-leave", "%player%", player.getDisplayName()));
+            broadcastMessage(party.getOnlineMembers(), Message.PLAYER_LEAVE, "", "%player%", player.getDisplayName());
 
             // Check if the player who left was the leader
             if (user.getPlayerID().equals(party.getLeader())) {
-                Random random  = new Random(); // Assign a new random leader
-                party.setLeader(party.getMembers().stream().map(User::getPlayerID)
-                        .collect(Collectors.toList()).get(random.nextInt(party.getSize())));
+                // Assign a new random leader
+                party.setLeader(party.getRandomMember().getPlayerID());
                 Player leader = Bukkit.getPlayer(party.getLeader());
                 if (leader != null)
-                    sendMessage(leader, "you-leader");
-                party.getMembers().stream().map(User::getPlayer).filter(Objects::nonNull).filter(p -> p.getUniqueId()
-                        != party.getLeader()).forEach(member -> sendMessageWithReplacement(member, "new-leader",
-                        "%player%", Bukkit.getOfflinePlayer(party.getLeader()).getName()));
+                    sendMessage(leader, Message.YOU_LEADER);
+                broadcastMessage(party.getOnlineMembers().stream().filter(p -> p.getUniqueId() != party.getLeader())
+                        .collect(Collectors.toList()), Message.NEW_LEADER, "", "%player%",
+                        Bukkit.getOfflinePlayer(party.getLeader()).getName());
             }
         }
         // Update the database if persistent parties is enabled
@@ -2,6 +2,7 @@ package dev.majek.pc.command.party;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
 import org.bukkit.Bukkit;
@@ -26,7 +27,7 @@ public class PartyPromote extends PartyCommand {
 
         // Must be in a party to use
         if (!user.isInParty()) {
-            sendMessage(player, "not-in-party");
+            sendMessage(player, Message.NOT_IN_PARTY);
             return false;
         }
 
@@ -36,12 +37,12 @@ public class PartyPromote extends PartyCommand {
         if (party == null) {
             PartyChat.error("Error: PC-PRO_1 | The plugin is fine, but please report this error " +
                     "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error");
+            sendMessage(player, Message.ERROR);
             return false;
         }
 
         if (args.length == 1) {
-            sendMessage(player, "specify-player");
+            sendMessage(player, Message.SPECIFY_PLAYER);
             return false;
         }
 
@@ -56,33 +57,32 @@ public class PartyPromote extends PartyCommand {
         if (party == null) {
             PartyChat.error("Error: PC-PRO_2 | The plugin is fine, but please report this error " +
                     "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error");
+            sendMessage(player, Message.ERROR);
             return false;
         }
 
         // Make sure the specified player is in the party
         Player target = Bukkit.getPlayerExact(newLeader);
         if (target == null) {
-            sendMessage(player, "not-online");
+            sendMessage(player, Message.NOT_ONLINE);
             return false;
         }
         if (!(party.getMembers().stream().map(User::getPlayer).collect(Collectors.toList()).contains(target))) {
-            sendMessage(player, "player-not-in-party");
+            sendMessage(player, Message.PLAYER_NOT_IN_PARTY);
             return false;
         }
 
         // Player is trying to promote themself :P
         if (player == target && !player.hasPermission("partychat.bypass")) {
-            sendMessage(player, "promote-self");
+            sendMessage(player, Message.PROMOTE_SELF);
             return false;
         }
 
         // Promote player
         party.setLeader(target.getUniqueId());
-        sendMessageWithReplacement(target, "you-promoted", "%player%", player.getDisplayName());
-        party.getMembers().stream().map(User::getPlayer).filter(Objects::nonNull).filter(p -> p.getUniqueId()
-                != party.getLeader()).forEach(member -> sendMessageWithReplacement(member, "new-leader",
-                "%player%", target.getDisplayName()));
+        sendMessageWithReplacement(target, Message.YOU_PROMOTED, "%player%", player.getDisplayName());
+        broadcastMessage(party.getOnlineMembers().stream().filter(p -> p.getUniqueId() != party.getLeader())
+                .collect(Collectors.toList()), Message.NEW_LEADER, "", "%player%", target.getDisplayName());
 
         // Update the database if persistent parties is enabled
         if (PartyChat.getDataHandler().persistentParties)
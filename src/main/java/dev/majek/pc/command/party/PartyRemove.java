@@ -2,11 +2,11 @@ package dev.majek.pc.command.party;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
 import org.bukkit.entity.Player;
 
-import java.util.Objects;
 import java.util.stream.Collectors;
 
 public class PartyRemove extends PartyCommand {
@@ -26,7 +26,7 @@ public class PartyRemove extends PartyCommand {
 
         // Make sure the player is in a party
         if (!user.isInParty()) {
-            sendMessage(player, "not-in-party");
+            sendMessage(player, Message.NOT_IN_PARTY);
             return false;
         }
 
@@ -34,13 +34,13 @@ public class PartyRemove extends PartyCommand {
         if (party == null) {
             PartyChat.error("Error: PC-REM_1 | The plugin is fine, but please report this error " +
                     "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error");
+            sendMessage(player, Message.ERROR);
             return false;
         }
 
         // Must specify a player to remove
         if (args.length == 1) {
-            sendMessage(player, "specify-player");
+            sendMessage(player, Message.SPECIFY_PLAYER);
             return false;
         }
 
@@ -55,7 +55,7 @@ public class PartyRemove extends PartyCommand {
         if (party == null) {
             PartyChat.error("Error: PC-REM_2 | The plugin is fine, but please report this error " +
                     "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error");
+            sendMessage(player, Message.ERROR);
             return false;
         }
 
@@ -63,31 +63,28 @@ public class PartyRemove extends PartyCommand {
         User target = party.getMembers().stream().filter(member -> member.getUsername()
                 .equalsIgnoreCase(toRemove)).collect(Collectors.toList()).get(0);
         if (target == null) {
-            sendMessage(player, "player-not-in-party");
+            sendMessage(player, Message.PLAYER_NOT_IN_PARTY);
             return false;
         }
 
         // Player is trying to remove themself
         if (user == target) {
-            sendMessage(player, "remove-self");
+            sendMessage(player, Message.REMOVE_SELF);
             return false;
         }
 
         // Player is trying to remove leader
         if (user.getPlayerID() == party.getLeader()) {
-            sendMessage(player, "remove-leader");
+            sendMessage(player, Message.REMOVE_LEADER);
             return false;
         }
 
-        party.removeMember(target);
-        target.setPartyID(null);
-        target.setInParty(false);
+        PartyChat.getPartyHandler().removeMember(party, target);
 
         if (target.isOnline() && target.getPlayer() != null)
-            sendMessageWithReplacement(target.getPlayer(), "you-removed", "%player%", player.getDisplayName());
+            sendMessageWithReplacement(target.getPlayer(), Message.YOU_REMOVED, "%player%", player.getDisplayName());
 
-        party.getMembers().stream().map(User::getPlayer).filter(Objects::nonNull).forEach(member ->
-                sendMessageWithReplacement(member, "player-removed", "%player%", target.getUsername()));
+        broadcastMessage(party.getOnlineMembers(), Message.PLAYER_REMOVED, "", "%player%", target.getUsername());
 
         // Update the database if persistent parties is enabled
         if (PartyChat.getDataHandler().persistentParties)
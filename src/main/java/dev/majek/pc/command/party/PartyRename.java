@@ -3,6 +3,7 @@ package dev.majek.pc.command.party;
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
 import dev.majek.pc.data.Restrictions;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
 import dev.majek.pc.util.Chat;
@@ -23,13 +24,13 @@ public class PartyRename extends PartyCommand {
 
         // Check if the player is already in a party
         if (!PartyChat.getDataHandler().getUser(player).isInParty()) {
-            sendMessage(player, "not-in-party");
+            sendMessage(player, Message.NOT_IN_PARTY);
             return false;
         }
 
         // Make sure the player specifies a party name
         if (args.length == 1) {
-            sendMessage(player, "no-name");
+            sendMessage(player, Message.NO_NAME);
             return false;
         }
 
@@ -44,33 +45,33 @@ public class PartyRename extends PartyCommand {
         if (party == null) {
             PartyChat.error("Error: PC-REN_1 | The plugin is fine, but please report this error " +
                     "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error");
+            sendMessage(player, Message.ERROR);
             return false;
         }
 
         // Check if a party with that name already exists
         if (PartyChat.getPartyHandler().isNameTaken(newName)) {
-            sendMessage(player, "name-taken");
+            sendMessage(player, Message.NAME_TAKEN);
             return false;
         }
 
         // Check if the server is blocking inappropriate names and block them if the name contains them
-        if (PartyChat.getDataHandler().getConfigBoolean(mainConfig, "block-inappropriate-names")) {
+        if (PartyChat.getDataHandler().getSettings().blockInappropriateNames()) {
             if (Restrictions.containsCensoredWord(newName)) {
-                sendMessage(player, "inappropriate-name");
+                sendMessage(player, Message.INAPPROPRIATE_NAME);
                 return false;
             }
         }
 
         // Check if the party name exceeds the character limit defined in the config file
         if (Chat.removeColorCodes(newName).length() > PartyChat.getDataHandler()
-                .getConfigInt(mainConfig, "max-name-length")) {
-            sendMessage(player, "name-too-long");
+                .getSettings().getMaxNameLength()) {
+            sendMessage(player, Message.NAME_TOO_LONG);
             return false;
         }
 
-        party.setName(newName);
-        sendMessageWithReplacement(player, "party-rename", "%partyName%", newName);
+        PartyChat.getPartyHandler().renameParty(party, newName);
+        sendMessageWithReplacement(player, Message.PARTY_RENAME, "%partyName%", newName);
 
         // Update the database if persistent parties is enabled
         if (PartyChat.getDataHandler().persistentParties)
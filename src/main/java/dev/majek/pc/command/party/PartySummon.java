@@ -2,6 +2,8 @@ package dev.majek.pc.command.party;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.data.ExpiryHandler;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
 import dev.majek.pc.util.Utils;
@@ -24,7 +26,7 @@ public class PartySummon extends PartyCommand {
 
         // Check if the player is already in a party
         if (!PartyChat.getDataHandler().getUser(player).isInParty()) {
-            sendMessage(player, "not-in-party");
+            sendMessage(player, Message.NOT_IN_PARTY);
             return false;
         }
 
@@ -32,40 +34,34 @@ public class PartySummon extends PartyCommand {
         if (party == null) {
             PartyChat.error("Error: PC-SUM_1 | The plugin is fine, but please report this error " +
                     "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error");
+            sendMessage(player, Message.ERROR);
             return false;
         }
 
         // Make sure the leader is in a safe location
         if (!Utils.isSafe(player.getLocation())) {
-            sendMessage(player, "location-unsafe");
+            sendMessage(player, Message.LOCATION_UNSAFE);
             return false;
         }
 
         // Send summons to all members
+        int timeout = PartyChat.getDataHandler().getSettings().getSummonExpireTime();
         for (User member : party.getMembers()) {
             if (!member.isOnline())
                 continue;
             if (member.getPlayer() == player)
                 continue;
-            for (String string : PartyChat.getDataHandler().getConfigStringList(PartyChat
-                    .getDataHandler().messages, "summon-request")) {
-                sendFormattedMessage(member.getPlayer(), string.replace("%prefix%", PartyChat.getDataHandler()
-                        .getConfigString(PartyChat.getDataHandler().messages, "prefix"))
-                        .replace("%player%", player.getDisplayName()));
-            }
-            party.addPendingSummons(member.getPlayer());
-            int timeout = PartyChat.getDataHandler().getConfigInt(mainConfig, "summon-expire-time");
-            if (timeout != -1) {
-                runTaskLater(timeout, () ->  {
-                    if (party.getPendingSummons().contains(member.getPlayer())) {
-                        party.removePendingSummons(member.getPlayer());
-                        sendMessage(member.getPlayer(), "teleport-timeout");
-                    }
-                });
-            }
+            sendMessageList(member.getPlayer(), Message.SUMMON_REQUEST, "%player%", player.getDisplayName());
+            Player summoned = member.getPlayer();
+            party.addPendingSummons(summoned.getUniqueId());
+            PartyChat.getExpiryHandler().schedule(ExpiryHandler.Type.SUMMON, party.getId(), summoned.getUniqueId(),
+                    timeout, () -> {
+                        party.removePendingSummons(summoned.getUniqueId());
+                        if (summoned.isOnline())
+                            sendMessage(summoned, Message.TELEPORT_TIMEOUT);
+                    });
         }
-        sendMessage(player, "summon-sent");
+        sendMessage(player, Message.SUMMON_SENT);
         return true;
     }
 }
@@ -2,6 +2,7 @@ package dev.majek.pc.command.party;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
 import org.bukkit.entity.Player;
@@ -22,12 +23,12 @@ public class PartyToggle extends PartyCommand {
 
         // Check if the player is not in a party
         if (!user.isInParty()) {
-            sendMessage(player, "not-in-party");
+            sendMessage(player, Message.NOT_IN_PARTY);
             return false;
         }
 
         if (args.length == 1) {
-            sendMessage(player, "choose-toggle");
+            sendMessage(player, Message.CHOOSE_TOGGLE);
             return false;
         }
 
@@ -37,27 +38,27 @@ public class PartyToggle extends PartyCommand {
         if (party == null) {
             PartyChat.error("Error: PC-TOG_1 | The plugin is fine, but please report this error " +
                     "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error");
+            sendMessage(player, Message.ERROR);
             return false;
         }
 
         // Apply toggles
         if (args[1].equalsIgnoreCase("public")) {
-            sendMessage(player, "toggle-public");
+            sendMessage(player, Message.TOGGLE_PUBLIC);
             party.setPublic(true);
         } else if (args[1].equalsIgnoreCase("private")) {
-            sendMessage(player, "toggle-private");
+            sendMessage(player, Message.TOGGLE_PRIVATE);
             party.setPublic(false);
         } else if (args[1].equalsIgnoreCase("friendly-fire")) {
             if (args.length == 2) {
-                sendMessageWithReplacement(player, "friendly-fire-status", "%status%",
+                sendMessageWithReplacement(player, Message.FRIENDLY_FIRE_STATUS, "%status%",
                         party.allowsFriendlyFire() ? "allow" : "deny");
             } else {
                 if (args[2].equalsIgnoreCase("allow")) {
-                    sendMessage(player, "friendly-fire-set-enabled");
+                    sendMessage(player, Message.FRIENDLY_FIRE_SET_ENABLED);
                     party.setFriendlyFire(true);
                 } else if (args[2].equalsIgnoreCase("deny")) {
-                    sendMessage(player, "friendly-fire-set-disabled");
+                    sendMessage(player, Message.FRIENDLY_FIRE_SET_DISABLED);
                     party.setFriendlyFire(false);
                 }
             }
@@ -0,0 +1,192 @@
+package dev.majek.pc.data;
+
+import dev.majek.pc.PartyChat;
+import dev.majek.pc.command.PartyChatCommand;
+import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.data.object.Language;
+import dev.majek.pc.data.storage.YAMLConfig;
+import dev.majek.pc.mechanic.Mechanic;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class watches the plugin's data folder and applies config changes as soon as files are saved, so
+ * /pc reload isn't needed. Changes are debounced, only the files that changed are parsed (off the main thread),
+ * and the new settings are diffed against the current ones so only the affected parts are rebuilt.
+ */
+public class ConfigWatcher extends Mechanic {
+
+    // How long the folder must be quiet before a batch of changes is applied
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private WatchService watchService;
+    private Thread thread;
+    private Path dataFolder;
+    private Path langFolder;
+
+    @Override
+    public void onStartup() {
+        if (!PartyChat.getDataHandler().getSettings().watchConfigFiles())
+            return;
+        dataFolder = PartyChat.getCore().getDataFolder().toPath();
+        langFolder = dataFolder.resolve("Lang");
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dataFolder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            if (Files.isDirectory(langFolder))
+                langFolder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            PartyChat.error("Unable to watch config files for changes, use /pc reload to apply changes.");
+            e.printStackTrace();
+            return;
+        }
+        thread = new Thread(this::watch, "PartyChat Config Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void onShutdown() {
+        if (thread != null)
+            thread.interrupt();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) { }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<String> changed = new HashSet<>();
+                collect(watchService.take(), changed);
+                // Editors often write a file several times in a row, wait until they're done
+                WatchKey key;
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null)
+                    collect(key, changed);
+                if (!changed.isEmpty())
+                    parse(changed);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+            // Shutting down
+        }
+    }
+
+    /**
+     * Add the names of all files changed in a watch key's events, relative to the data folder.
+     * @param key The watch key.
+     * @param changed The set of changed file names.
+     */
+    private void collect(WatchKey key, Set<String> changed) {
+        Path folder = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                continue;
+            String name = ((Path) event.context()).toString();
+            changed.add(folder.equals(langFolder) ? "Lang/" + name : name);
+        }
+        key.reset();
+    }
+
+    /**
+     * Parse the changed files on the watcher thread, then apply them on the main thread.
+     * @param changed The names of the changed files.
+     */
+    private void parse(Set<String> changed) {
+        Map<String, FileConfiguration> parsed = new HashMap<>();
+        for (String file : changed) {
+            if (file.equals("config.yml") || file.equals("commands.yml")
+                    || (file.startsWith("Lang/") && file.endsWith(".yml")))
+                parsed.put(file, new YAMLConfig(PartyChat.getCore(), null, file).parseConfig());
+        }
+        boolean censorFileChanged = changed.contains(PartyChat.getDataHandler().getSettings().getBlockedWordsFile());
+        if (parsed.isEmpty() && !censorFileChanged)
+            return;
+        Bukkit.getScheduler().runTask(PartyChat.getCore(), () -> apply(parsed, censorFileChanged));
+    }
+
+    /**
+     * Swap in the parsed files and rebuild whatever depends on settings that changed.
+     * @param parsed The parsed files keyed by name relative to the data folder.
+     * @param censorFileChanged Whether or not the blocked words file changed.
+     */
+    private void apply(Map<String, FileConfiguration> parsed, boolean censorFileChanged) {
+        DataHandler dataHandler = PartyChat.getDataHandler();
+        Settings previous = dataHandler.getSettings();
+
+        FileConfiguration mainConfig = parsed.get("config.yml");
+        if (mainConfig != null) {
+            dataHandler.mainConfig = mainConfig;
+            PartyCommand.mainConfig = mainConfig;
+            PartyChatCommand.mainConfig = mainConfig;
+        }
+        FileConfiguration commandConfig = parsed.get("commands.yml");
+        if (commandConfig != null)
+            dataHandler.commandConfig = commandConfig;
+        for (Map.Entry<String, FileConfiguration> entry : parsed.entrySet()) {
+            if (!entry.getKey().startsWith("Lang/"))
+                continue;
+            String langID = entry.getKey().substring(5, entry.getKey().length() - 4);
+            Language language = PartyChat.getLanguageHandler().getLangMap().get(langID);
+            if (language == null || !language.isLoaded())
+                continue; // Not loaded yet, it'll read the new file when it is
+            language.setConfig(entry.getValue());
+        }
+        dataHandler.refreshSettings();
+        Settings current = dataHandler.getSettings();
+
+        List<String> applied = new ArrayList<>(parsed.keySet());
+        if (!previous.getLanguage().equals(current.getLanguage()))
+            dataHandler.setMessages(current.getLanguage());
+        if (censorFileChanged || previous.blockInappropriateNames() != current.blockInappropriateNames()
+                || previous.blockInappropriateChat() != current.blockInappropriateChat()
+                || !previous.getBlockedWords().equals(current.getBlockedWords())
+                || !previous.getBlockedWordsFile().equals(current.getBlockedWordsFile())) {
+            dataHandler.loadCensorWords();
+            applied.add("censored words");
+        }
+        if (!previous.getCommands().equals(current.getCommands()))
+            applyCommands(previous, current);
+
+        PartyChat.log("Applied config changes: " + String.join(", ", applied));
+    }
+
+    /**
+     * Update party subcommands whose settings changed. Cooldowns and disabled flags are updated in place, any
+     * other change rebuilds the commands.
+     * @param previous The settings before the change.
+     * @param current The settings after the change.
+     */
+    private void applyCommands(Settings previous, Settings current) {
+        Set<String> names = new HashSet<>(previous.getCommands().keySet());
+        names.addAll(current.getCommands().keySet());
+        List<PartyCommand> toUpdate = new ArrayList<>();
+        for (String name : names) {
+            Settings.CommandSettings before = previous.getCommand(name);
+            Settings.CommandSettings after = current.getCommand(name);
+            if (before.equals(after))
+                continue;
+            PartyCommand command = PartyChat.getCommandHandler().getCommand(name);
+            if (command == null || !before.getUsage().equals(after.getUsage())
+                    || !before.getDescription().equals(after.getDescription())
+                    || !before.getAliases().equals(after.getAliases())) {
+                PartyChat.getCommandHandler().reload();
+                return;
+            }
+            toUpdate.add(command);
+        }
+        for (PartyCommand command : toUpdate) {
+            Settings.CommandSettings after = current.getCommand(command.getName());
+            command.setCooldown(after.getCooldown());
+            command.setDisabled(after.isDisabled());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package dev.majek.pc.data;
+
+import dev.majek.pc.command.PartyCommand;
+import dev.majek.pc.mechanic.Mechanic;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class handles /party subcommand cooldowns. Cooldowns are stored as expiry timestamps per player and
+ * command, so no tasks are scheduled and the remaining time is computed when it's read.
+ */
+public class CooldownHandler extends Mechanic {
+
+    private final Map<UUID, Map<String, Long>> cooldownMap;
+
+    public CooldownHandler() {
+        this.cooldownMap = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Runs when a player leaves. Drop any of their cooldowns that have already expired.
+     * @param player The player leaving.
+     */
+    @Override
+    public void onPlayerQuit(Player player) {
+        Map<String, Long> cooldowns = cooldownMap.get(player.getUniqueId());
+        if (cooldowns == null)
+            return;
+        long now = System.currentTimeMillis();
+        cooldowns.values().removeIf(expiry -> expiry <= now);
+        if (cooldowns.isEmpty())
+            cooldownMap.remove(player.getUniqueId());
+    }
+
+    /**
+     * Put a command on cooldown for a player. Does nothing if the command has no cooldown.
+     * @param player The player who used the command.
+     * @param command The command used.
+     */
+    public void startCooldown(Player player, PartyCommand command) {
+        if (command.getCooldown() <= 0)
+            return;
+        cooldownMap.computeIfAbsent(player.getUniqueId(), k -> new ConcurrentHashMap<>())
+                .put(command.getName(), System.currentTimeMillis() + command.getCooldown() * 1000L);
+    }
+
+    /**
+     * Get the time remaining on a player's cooldown for a command.
+     * @param player The player to check.
+     * @param command The command to check.
+     * @return Time remaining in milliseconds, 0 if the command is not on cooldown.
+     */
+    public long getTimeRemaining(Player player, PartyCommand command) {
+        Map<String, Long> cooldowns = cooldownMap.get(player.getUniqueId());
+        if (cooldowns == null)
+            return 0;
+        Long expiry = cooldowns.get(command.getName());
+        if (expiry == null)
+            return 0;
+        long remaining = expiry - System.currentTimeMillis();
+        if (remaining <= 0) {
+            cooldowns.remove(command.getName());
+            return 0;
+        }
+        return remaining;
+    }
+
+    /**
+     * Check if a command is on cooldown for a player.
+     * @param player The player to check.
+     * @param command The command to check.
+     * @return true -> on cooldown | false -> usable
+     */
+    public boolean isOnCooldown(Player player, PartyCommand command) {
+        return getTimeRemaining(player, command) > 0;
+    }
+}
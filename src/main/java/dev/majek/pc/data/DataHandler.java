@@ -2,11 +2,14 @@ package dev.majek.pc.data;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.data.object.User;
+import dev.majek.pc.data.object.UserCacheStats;
 import dev.majek.pc.data.storage.ConfigUpdater;
 import dev.majek.pc.data.object.Language;
 import dev.majek.pc.data.storage.YAMLConfig;
+import dev.majek.pc.data.storage.YAMLPatcher;
 import dev.majek.pc.mechanic.Mechanic;
 import org.apache.commons.io.FileUtils;
+import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -18,11 +21,22 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.stream.Stream;
 
 /**
  * This class handles all plugin data storage, config file access, and the main config file.
+ *
+ * Thread-safety: the user map is concurrent, so users can be looked up from any thread, including async
+ * PlaceholderAPI requests. User fields read across threads are volatile. Changes to a user's party membership
+ * go through {@link PartyHandler#addMember} and {@link PartyHandler#removeMember}, which hold the party's lock.
+ *
+ * The user map is a bounded cache. Online users are always kept, offline users who are still in a party are kept
+ * without their player reference, and everyone else is evicted once they've been offline longer than
+ * user-cache-ttl. Evicted users are recreated when they next join.
  */
 public class DataHandler extends Mechanic {
 
@@ -32,21 +46,23 @@ public class DataHandler extends Mechanic {
 
     // Data
     private final Map<UUID, User> userMap;
+    private final AtomicLong evictions;
+    private volatile Settings settings;
 
     // Configuration
     public FileConfiguration mainConfig;
-    public FileConfiguration messages;
     public FileConfiguration commandConfig;
     public boolean debug;
     public boolean disableGuis;
     public boolean persistentParties;
     public boolean blockInappropriateNames;
     public boolean blockInappropriateChat;
-    public List<String> censorWords;
+    public volatile List<String> censorWords;
 
     public DataHandler() {
         instance = PartyChat.getCore();
-        this.userMap = new HashMap<>();
+        this.userMap = new ConcurrentHashMap<>();
+        this.evictions = new AtomicLong(0);
         this.censorWords = new ArrayList<>();
         wipeOldPlugin();
         updateMainConfig();
@@ -74,17 +90,17 @@ public class DataHandler extends Mechanic {
     }
 
     /**
-     * Initialize the main config file before doing anything else.
+     * Initialize the main config file before doing anything else. config.yml and commands.yml are merged in
+     * parallel, the language files are merged on the language loader pool when they're loaded.
      */
     public void updateMainConfig() {
         // Initialize main config
         PartyChat.getCore().saveDefaultConfig();
-        File configFile = new File(instance.getDataFolder(), "config.yml");
-        try {
-            ConfigUpdater.update(instance, "config.yml", configFile, Collections.emptyList());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        new YAMLConfig(PartyChat.getCore(), null, "commands.yml").saveDefaultConfig();
+        Map<String, File> toUpdate = new LinkedHashMap<>();
+        toUpdate.put("config.yml", new File(instance.getDataFolder(), "config.yml"));
+        toUpdate.put("commands.yml", new File(instance.getDataFolder(), "commands.yml"));
+        ConfigUpdater.updateAll(instance, toUpdate);
         PartyChat.getCore().reloadConfig();
         mainConfig = PartyChat.getCore().getConfig();
     }
@@ -100,34 +116,49 @@ public class DataHandler extends Mechanic {
         String[] versionSplit = substring.split("_");
         minecraftVersion = Integer.parseInt(versionSplit[1]);
 
-        // Load commands config file
+        // commands.yml was brought up to date along with config.yml
         YAMLConfig commands = new YAMLConfig(PartyChat.getCore(), null, "commands.yml");
-        commands.saveDefaultConfig();
-        File commandsFile = new File(PartyChat.getCore().getDataFolder(), "commands.yml");
-        try {
-            ConfigUpdater.update(PartyChat.getCore(), "commands.yml", commandsFile, Collections.emptyList());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
         commands.reloadConfig();
         commandConfig = commands.getConfig();
 
         // Set global values defined in main config
-        debug = getConfigBoolean(mainConfig, "debug");
-        disableGuis = getConfigBoolean(mainConfig, "disable-guis");
-        disableGuis = !(minecraftVersion >= 13); // They just don't work in 12 and below
-        if (disableGuis)
+        refreshSettings();
+        if (minecraftVersion < 13)
             PartyChat.log("GUIs have been disabled due to the server's Minecraft version.");
-        persistentParties = getConfigBoolean(mainConfig, "persistent-parties");
-        blockInappropriateNames = getConfigBoolean(mainConfig, "block-inappropriate-names");
-        blockInappropriateChat = getConfigBoolean(mainConfig, "block-inappropriate-names");
 
         // Censored words stuff
+        loadCensorWords();
+
+        // Plugin metrics
+        Metrics metrics = new Metrics(PartyChat.getCore(), 7667);
+        metrics.addCustomChart(new Metrics.SingleLineChart("cached_users", userMap::size));
+
+        // Sweep idle users from the cache once a minute
+        Bukkit.getScheduler().runTaskTimer(PartyChat.getCore(), this::evictIdleUsers, 1200L, 1200L);
+
+        PartyChat.log("Finished updating config and lang files.");
+    }
+
+    /**
+     * Runs on plugin shutdown. Let queued config edits finish before the server stops.
+     */
+    @Override
+    public void onShutdown() {
+        if (!YAMLPatcher.shutdown())
+            PartyChat.error("Timed out waiting for config edits to be saved");
+    }
+
+    /**
+     * Load the censored words from the main config and the blocked words file, replacing the current list.
+     */
+    public void loadCensorWords() {
+        blockInappropriateNames = settings.blockInappropriateNames();
+        blockInappropriateChat = settings.blockInappropriateChat();
+        List<String> censorWords = new ArrayList<>();
         if (blockInappropriateNames || blockInappropriateChat) {
-            censorWords.addAll(getConfigStringList(mainConfig, "blocked-words"));
-            if (!(getConfigString(mainConfig, "blocked-words-file").equalsIgnoreCase(""))) {
-                File censorFile = new File(PartyChat.getCore().getDataFolder(),
-                        getConfigString(mainConfig, "blocked-words-file"));
+            censorWords.addAll(settings.getBlockedWords());
+            if (!(settings.getBlockedWordsFile().equalsIgnoreCase(""))) {
+                File censorFile = new File(PartyChat.getCore().getDataFolder(), settings.getBlockedWordsFile());
                 if (!censorFile.exists()) {
                     try {
                         InputStream stream = PartyChat.getCore().getResource("censor-words.txt");
@@ -140,22 +171,32 @@ public class DataHandler extends Mechanic {
                 try (Stream<String> stream = Files.lines(Paths.get(censorFile.toURI()), StandardCharsets.UTF_8)) {
                     stream.forEach(word -> censorWords.add(word));
                 } catch (IOException e) {
-                    PartyChat.error("Error loading censor words from file: "
-                            + getConfigString(mainConfig, "blocked-words-file"));
+                    PartyChat.error("Error loading censor words from file: " + settings.getBlockedWordsFile());
                     e.printStackTrace();
                 }
             }
         }
+        this.censorWords = censorWords;
+    }
 
-        // Plugin metrics
-        new Metrics(PartyChat.getCore(), 7667);
-
-        PartyChat.log("Finished updating config and lang files.");
+    /**
+     * Bind the current config files into a new {@link Settings} and publish it. Also updates the
+     * plain config fields kept on this class.
+     */
+    public void refreshSettings() {
+        Settings settings = new Settings(mainConfig, commandConfig);
+        debug = settings.debug();
+        disableGuis = settings.disableGuis() || minecraftVersion < 13; // They just don't work in 12 and below
+        persistentParties = settings.persistentParties();
+        this.settings = settings;
     }
 
-    public void postStartup() {
-        // Set the message config file based on language from main config
-        messages = PartyChat.getLanguageHandler().getLanguage().getMessagesConfig().getConfig();
+    /**
+     * Get the current config settings. The returned object is immutable and a new one is published on reload.
+     * @return Settings.
+     */
+    public Settings getSettings() {
+        return settings;
     }
 
     /**
@@ -178,20 +219,15 @@ public class DataHandler extends Mechanic {
         commandConfig = commands.getConfig();
 
         // Set global values defined in main config
-        debug = getConfigBoolean(mainConfig, "debug");
-        disableGuis = getConfigBoolean(mainConfig, "disable-guis");
-        disableGuis = !(minecraftVersion >= 13); // They just don't work in 12 and below
-        if (disableGuis)
+        refreshSettings();
+        if (minecraftVersion < 13)
             PartyChat.log("GUIs have been disabled due to the server's Minecraft version.");
-        persistentParties = getConfigBoolean(mainConfig, "persistent-parties");
 
         // Update language if necessary
-        if (!PartyChat.getLanguageHandler().getLanguage().getLangID().equals(getConfigString(mainConfig,
-                "language"))) {
-            setMessages(getConfigString(mainConfig, "language"));
+        if (!PartyChat.getLanguageHandler().getLanguage().getLangID().equals(settings.getLanguage())) {
+            setMessages(settings.getLanguage());
         }
-        PartyChat.getLanguageHandler().getLanguage().getMessagesConfig().reloadConfig();
-        messages = PartyChat.getLanguageHandler().getLanguage().getMessagesConfig().getConfig();
+        PartyChat.getLanguageHandler().getLanguage().reload();
         PartyChat.log("Config and lang files were reloaded.");
     }
 
@@ -208,7 +244,7 @@ public class DataHandler extends Mechanic {
         User user = getUser(player);
         if (player.hasPermission("partychat.admin") && !user.isStaff()) {
             user.setStaff(true);
-            user.setSpyToggle(getConfigBoolean(mainConfig, "auto-spy"));
+            user.setSpyToggle(settings.autoSpy());
         } else if (!player.hasPermission("partychat.admin")) {
             user.setStaff(false);
             user.setSpyToggle(false);
@@ -275,7 +311,7 @@ public class DataHandler extends Mechanic {
         try {
             return config.getBoolean(path);
         } catch (NullPointerException ex) {
-            String filepath = config == PartyChat.getCore().getConfig() ? "config.yml" :
+            String filepath = config == mainConfig ? "config.yml" :
                     PartyChat.getLanguageHandler().getLanguage().getLangID() + ".yml";
             throw new NullPointerException("Error finding value for path " + path + " in "
                     + filepath + ", did you delete something?");
@@ -292,7 +328,7 @@ public class DataHandler extends Mechanic {
         try {
             return config.getString(path);
         } catch (NullPointerException ex) {
-            String filepath = config == PartyChat.getCore().getConfig() ? "config.yml" :
+            String filepath = config == mainConfig ? "config.yml" :
                     PartyChat.getLanguageHandler().getLanguage().getLangID() + ".yml";
             throw new NullPointerException("Error finding value for path " + path + " in "
                     + filepath + ", did you delete something?");
@@ -309,7 +345,7 @@ public class DataHandler extends Mechanic {
         try {
             return config.getInt(path);
         } catch (NullPointerException ex) {
-            String filepath = config == PartyChat.getCore().getConfig() ? "config.yml" :
+            String filepath = config == mainConfig ? "config.yml" :
                     PartyChat.getLanguageHandler().getLanguage().getLangID() + ".yml";
             throw new NullPointerException("Error finding value for path " + path + " in "
                     + filepath + ", did you delete something?");
@@ -326,7 +362,7 @@ public class DataHandler extends Mechanic {
         try {
             return config.getStringList(path);
         } catch (NullPointerException ex) {
-            String filepath = config == PartyChat.getCore().getConfig() ? "config.yml" :
+            String filepath = config == mainConfig ? "config.yml" :
                     PartyChat.getLanguageHandler().getLanguage().getLangID() + ".yml";
             throw new NullPointerException("Error finding value for path " + path + " in "
                     + filepath + ", did you delete something?");
@@ -334,7 +370,7 @@ public class DataHandler extends Mechanic {
     }
 
     /**
-     * Set the {@link DataHandler#messages} config file to a different language.
+     * Set the plugin language.
      * If this method fails it's probably because the language ID you're trying to set
      * isn't present in the main config file's supported-languages section.
      * @param lang The language ID to set the plugin language to.
@@ -343,7 +379,6 @@ public class DataHandler extends Mechanic {
         Language language = PartyChat.getLanguageHandler().getLangMap().get(lang);
         if (language != null) {
             PartyChat.getLanguageHandler().setLanguage(language);
-            messages = PartyChat.getLanguageHandler().getLanguage().getMessagesConfig().getConfig();
             PartyChat.log("Language set to " + language.getLangID() + ".");
         }
     }
@@ -368,6 +403,43 @@ public class DataHandler extends Mechanic {
         userMap.remove(user.getPlayerID());
     }
 
+    /**
+     * Remove users who are offline, not in a party, and have been idle longer than the cache TTL.
+     * Runs on the main thread so it can't race a player joining.
+     */
+    public void evictIdleUsers() {
+        int ttl = settings.getUserCacheTTL();
+        if (ttl < 0)
+            return;
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(ttl);
+        int evicted = 0;
+        for (User user : userMap.values()) {
+            if (!user.isOnline() && !user.isInParty() && user.getLastSeen() < cutoff
+                    && userMap.remove(user.getPlayerID(), user))
+                evicted++;
+        }
+        evictions.addAndGet(evicted);
+        if (debug && evicted > 0)
+            PartyChat.log("Evicted " + evicted + " idle users. " + getUserCacheStats());
+    }
+
+    /**
+     * Get the current state of the user cache.
+     * @return User cache stats.
+     */
+    public UserCacheStats getUserCacheStats() {
+        int online = 0, offlineMembers = 0, idle = 0;
+        for (User user : userMap.values()) {
+            if (user.isOnline())
+                online++;
+            else if (user.isInParty())
+                offlineMembers++;
+            else
+                idle++;
+        }
+        return new UserCacheStats(online, offlineMembers, idle, evictions.get());
+    }
+
     public enum MessageType {
         COMPONENT,
         BASECOMPONENT,
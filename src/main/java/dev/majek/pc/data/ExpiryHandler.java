@@ -0,0 +1,178 @@
+package dev.majek.pc.data;
+
+import dev.majek.pc.PartyChat;
+import dev.majek.pc.mechanic.Mechanic;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+
+/**
+ * This class handles expiring invitations, join requests, join blocks, and summons.
+ *
+ * Expirations are kept in a hierarchical timing wheel with a resolution of one second. Scheduling and cancelling
+ * are O(1) and a single repeating task advances the wheel, so pending requests don't each need their own task.
+ * Expiry callbacks always run on the main thread. Scheduling and cancelling are safe from any thread.
+ */
+public class ExpiryHandler extends Mechanic {
+
+    /**
+     * The kinds of requests that can expire. Together with a party and player id this identifies an expiration.
+     */
+    public enum Type {
+        INVITATION,
+        JOIN_REQUEST,
+        JOIN_BLOCK,
+        SUMMON
+    }
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELAY = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    private final List<Set<Entry>> wheels;
+    private final Map<String, Entry> entryMap;
+    private long currentTick;
+    private BukkitTask task;
+
+    public ExpiryHandler() {
+        this.wheels = new ArrayList<>(LEVELS * WHEEL_SIZE);
+        for (int i = 0; i < LEVELS * WHEEL_SIZE; i++)
+            wheels.add(new HashSet<>());
+        this.entryMap = new HashMap<>();
+        this.currentTick = 0;
+    }
+
+    /**
+     * Runs on plugin startup. Start the task that advances the wheel once a second.
+     */
+    @Override
+    public void onStartup() {
+        task = Bukkit.getScheduler().runTaskTimer(PartyChat.getCore(), this::tick, 20L, 20L);
+    }
+
+    /**
+     * Runs on plugin shutdown. Stop the wheel and drop everything pending.
+     */
+    @Override
+    public void onShutdown() {
+        if (task != null)
+            task.cancel();
+        synchronized (this) {
+            wheels.forEach(Set::clear);
+            entryMap.clear();
+        }
+    }
+
+    /**
+     * Schedule an expiration, replacing any pending expiration with the same type, party, and player.
+     * @param type The type of request expiring.
+     * @param partyID The unique id of the party the request belongs to.
+     * @param playerID The unique id of the player the request belongs to.
+     * @param seconds Time until the request expires. If this is -1 the request never expires.
+     * @param onExpire What to do when the request expires. Runs on the main thread.
+     */
+    public void schedule(Type type, UUID partyID, UUID playerID, int seconds, Runnable onExpire) {
+        String key = key(type, partyID, playerID);
+        synchronized (this) {
+            removeEntry(entryMap.remove(key));
+            if (seconds == -1)
+                return;
+            Entry entry = new Entry(key, currentTick + Math.min(Math.max(seconds, 1), MAX_DELAY), onExpire);
+            entryMap.put(key, entry);
+            insert(entry);
+        }
+    }
+
+    /**
+     * Cancel a pending expiration. Does nothing if there is none.
+     * @param type The type of request.
+     * @param partyID The unique id of the party the request belongs to.
+     * @param playerID The unique id of the player the request belongs to.
+     */
+    public synchronized void cancel(Type type, UUID partyID, UUID playerID) {
+        removeEntry(entryMap.remove(key(type, partyID, playerID)));
+    }
+
+    /**
+     * Check if an expiration is pending.
+     * @param type The type of request.
+     * @param partyID The unique id of the party the request belongs to.
+     * @param playerID The unique id of the player the request belongs to.
+     * @return true -> pending | false -> not scheduled or already expired
+     */
+    public synchronized boolean isPending(Type type, UUID partyID, UUID playerID) {
+        return entryMap.containsKey(key(type, partyID, playerID));
+    }
+
+    /**
+     * Advance the wheel by one second, cascading higher levels down and running everything that expired.
+     */
+    private void tick() {
+        List<Entry> expired;
+        synchronized (this) {
+            currentTick++;
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0)
+                    break;
+                Set<Entry> bucket = bucket(level, currentTick);
+                List<Entry> cascading = new ArrayList<>(bucket);
+                bucket.clear();
+                cascading.forEach(this::insert);
+            }
+            Set<Entry> bucket = bucket(0, currentTick);
+            expired = new ArrayList<>(bucket);
+            bucket.clear();
+            expired.forEach(entry -> entryMap.remove(entry.key, entry));
+        }
+        for (Entry entry : expired) {
+            try {
+                entry.onExpire.run();
+            } catch (Exception ex) {
+                PartyChat.error("Error running expiry task " + entry.key);
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private void insert(Entry entry) {
+        long delay = entry.deadline - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (WHEEL_BITS * (level + 1)))
+            level++;
+        entry.bucket = bucket(level, entry.deadline);
+        entry.bucket.add(entry);
+    }
+
+    private void removeEntry(Entry entry) {
+        if (entry != null && entry.bucket != null)
+            entry.bucket.remove(entry);
+    }
+
+    private Set<Entry> bucket(int level, long tick) {
+        return wheels.get(level * WHEEL_SIZE + (int) ((tick >> (WHEEL_BITS * level)) & WHEEL_MASK));
+    }
+
+    private static String key(Type type, UUID partyID, UUID playerID) {
+        return type.name() + ':' + partyID + ':' + playerID;
+    }
+
+    /**
+     * A single pending expiration in the wheel.
+     */
+    private static class Entry {
+
+        private final String key;
+        private final long deadline;
+        private final Runnable onExpire;
+        private Set<Entry> bucket;
+
+        private Entry(String key, long deadline, Runnable onExpire) {
+            this.key = key;
+            this.deadline = deadline;
+            this.onExpire = onExpire;
+        }
+    }
+}
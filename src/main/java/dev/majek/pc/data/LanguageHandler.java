@@ -2,34 +2,72 @@ package dev.majek.pc.data;
 
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.data.object.Language;
+import dev.majek.pc.data.storage.JSONConfig;
 import dev.majek.pc.mechanic.Mechanic;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ParseException;
 
+import javax.annotation.Nullable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class handles all plugin languages and their config files.
+ *
+ * With per-player-language enabled each player gets messages in the language they picked, or the supported
+ * language closest to their client language. Every player using a language shares its compiled messages.
+ *
+ * Only the languages needed on startup are loaded then, in parallel and off the main thread. The rest are loaded
+ * the first time someone needs them.
+ *
+ * Languages picked with /pc language are kept in player-languages.json so they survive restarts and players
+ * being dropped from the user cache. Changes are written on a background thread in the order they were made.
  */
 public class LanguageHandler extends Mechanic {
 
-    private Language language;
+    private volatile Language language;
     public List<String> supportedLanguages;
     public Map<String, Language> langMap;
+    private final Map<String, Language> localeCache;
+    private final Map<UUID, String> playerLanguages;
+    private final JSONConfig playerLanguageConfig;
+    private final ExecutorService writer;
 
     public LanguageHandler() {
         this.langMap = new HashMap<>();
         this.supportedLanguages = new ArrayList<>();
+        this.localeCache = new ConcurrentHashMap<>();
+        this.playerLanguages = new ConcurrentHashMap<>();
+        this.playerLanguageConfig = new JSONConfig(PartyChat.getCore().getDataFolder(), "player-languages");
+        try {
+            playerLanguageConfig.createConfig();
+        } catch (FileNotFoundException e) {
+            PartyChat.error("Unable to create player-languages.json storage file!");
+            e.printStackTrace();
+        }
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PartyChat Language Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
     public void onStartup() {
-        supportedLanguages.addAll(PartyChat.getDataHandler().mainConfig.getStringList("supported-languages"));
+        supportedLanguages.addAll(PartyChat.getDataHandler().getSettings().getSupportedLanguages());
         for (String lang : supportedLanguages)
             langMap.put(lang, new Language(lang));
         // Add en_US if they deleted the supported-languages section
         if (supportedLanguages.isEmpty())
             langMap.put("en_US", new Language("en_US"));
-        String userDefinedLang = PartyChat.getDataHandler().getConfigString(PartyChat
-                .getDataHandler().mainConfig, "language");
+        String userDefinedLang = PartyChat.getDataHandler().getSettings().getLanguage();
         this.language = langMap.get(userDefinedLang);
         if (language == null) {
             language = langMap.get("en_US");
@@ -38,6 +76,101 @@ public class LanguageHandler extends Mechanic {
         }
         if (!language.getLangID().equals("en_US"))
             PartyChat.log("Language set to " + language.getLangID() + ".");
+
+        // Start loading the languages needed right away in parallel, the rest are loaded when first used
+        loadAsync(PartyChat.getDataHandler().getSettings().perPlayerLanguage()
+                ? new ArrayList<>(langMap.values()) : Collections.singletonList(language));
+
+        loadPlayerLanguages();
+    }
+
+    /**
+     * Runs on plugin shutdown. Let queued player language writes finish before the server stops.
+     */
+    @Override
+    public void onShutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS))
+                PartyChat.error("Timed out waiting for player languages to be saved to player-languages.json");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loadPlayerLanguages() {
+        JSONObject fileContents;
+        try {
+            fileContents = playerLanguageConfig.toJSONObject();
+        } catch (IOException | ParseException e) {
+            PartyChat.error("Error loading saved player languages from player-languages.json");
+            e.printStackTrace();
+            return;
+        }
+        for (Object key : fileContents.keySet()) {
+            try {
+                playerLanguages.put(UUID.fromString(key.toString()), fileContents.get(key).toString());
+            } catch (IllegalArgumentException e) {
+                PartyChat.error("Invalid player id in player-languages.json: " + key);
+            }
+        }
+    }
+
+    /**
+     * Get the language a player picked with /pc language.
+     * @param playerID The player's unique id.
+     * @return Language ID, or null to use their client language.
+     */
+    @Nullable
+    public String getPlayerLanguage(UUID playerID) {
+        return playerLanguages.get(playerID);
+    }
+
+    /**
+     * Set the language a player picked with /pc language and save it to player-languages.json.
+     * @param playerID The player's unique id.
+     * @param langID Language ID, or null to go back to their client language.
+     */
+    public void setPlayerLanguage(UUID playerID, @Nullable String langID) {
+        if (langID == null)
+            playerLanguages.remove(playerID);
+        else
+            playerLanguages.put(playerID, langID);
+        Runnable write = () -> {
+            try {
+                if (langID == null)
+                    playerLanguageConfig.removeFromJSONObject(playerID.toString());
+                else
+                    playerLanguageConfig.putInJSONObject(playerID.toString(), langID);
+            } catch (IOException | ParseException e) {
+                PartyChat.error("Unable to save the language of " + playerID + " to player-languages.json");
+                e.printStackTrace();
+            }
+        };
+        // Once the plugin is shutting down write on the calling thread instead of dropping the change
+        if (writer.isShutdown())
+            write.run();
+        else
+            writer.execute(write);
+    }
+
+    /**
+     * Load languages in parallel on a worker pool. Each one is published on the main thread when it's ready,
+     * or sooner if it's needed before then.
+     * @param languages The languages to load.
+     */
+    private void loadAsync(Collection<Language> languages) {
+        int threads = Math.min(languages.size(), Runtime.getRuntime().availableProcessors());
+        if (threads == 0)
+            return;
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "PartyChat Language Loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Language language : languages)
+            language.loadAsync(pool);
+        pool.shutdown(); // Queued loads still run
     }
 
     /**
@@ -50,6 +183,79 @@ public class LanguageHandler extends Mechanic {
 
     public void setLanguage(Language language) {
         this.language = language;
+        localeCache.clear(); // Client languages without a match resolved to the old language
+    }
+
+    /**
+     * Get the language to send someone messages in. This is the plugin language unless per-player-language
+     * is enabled and the recipient is a player.
+     * @param sender The player/console receiving messages.
+     * @return Language.
+     */
+    public Language getLanguage(CommandSender sender) {
+        Language language = this.language;
+        if (!(sender instanceof Player) || !PartyChat.getDataHandler().getSettings().perPlayerLanguage())
+            return language;
+        Player player = (Player) sender;
+        String langID = playerLanguages.get(player.getUniqueId());
+        if (langID != null) {
+            Language picked = langMap.get(langID);
+            if (picked != null)
+                return picked;
+        }
+        String locale = getClientLocale(player);
+        if (locale == null)
+            return language;
+        return localeCache.computeIfAbsent(locale.toLowerCase(Locale.ROOT), this::matchLocale);
+    }
+
+    /**
+     * Find the supported language for a client language. An exact match wins, then any supported language
+     * for the same base language, e.g. es_MX for es_ar.
+     * @param locale The lowercase client language.
+     * @return Matching language, or the plugin language if nothing matches.
+     */
+    private Language matchLocale(String locale) {
+        String base = locale.split("_")[0] + "_";
+        Language sameBase = null;
+        for (Language candidate : langMap.values()) {
+            String id = candidate.getLangID().toLowerCase(Locale.ROOT);
+            if (id.equals(locale))
+                return candidate;
+            if (sameBase == null && id.startsWith(base))
+                sameBase = candidate;
+        }
+        return sameBase == null ? language : sameBase;
+    }
+
+    @Nullable
+    @SuppressWarnings("deprecation")
+    private static String getClientLocale(Player player) {
+        try {
+            return player.getLocale();
+        } catch (NoSuchMethodError error) {
+            try {
+                return player.spigot().getLocale();
+            } catch (NoSuchMethodError error1) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Find a supported language by its ID, ignoring case.
+     * @param langID The language ID, e.g. es_mx
+     * @return The language, or null if it isn't supported.
+     */
+    @Nullable
+    public Language findLanguage(String langID) {
+        Language language = langMap.get(langID);
+        if (language != null)
+            return language;
+        for (Language candidate : langMap.values())
+            if (candidate.getLangID().equalsIgnoreCase(langID))
+                return candidate;
+        return null;
     }
 
     public Map<String, Language> getLangMap() {
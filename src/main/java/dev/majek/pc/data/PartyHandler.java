@@ -1,11 +1,15 @@
 package dev.majek.pc.data;
 
 import dev.majek.pc.PartyChat;
+import dev.majek.pc.data.object.Invitation;
 import dev.majek.pc.data.object.Party;
+import dev.majek.pc.data.object.PartySnapshot;
 import dev.majek.pc.data.object.User;
 import dev.majek.pc.data.storage.JSONConfig;
 import dev.majek.pc.mechanic.Mechanic;
+import dev.majek.pc.util.Chat;
 import dev.majek.pc.util.Utils;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.ParseException;
@@ -13,20 +17,66 @@ import org.json.simple.parser.ParseException;
 import javax.annotation.Nullable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * This class handles party storage, lookups, saving, and loading.
+ *
+ * Thread-safety: the party map and all indexes are concurrent, so single lookups and single updates are safe
+ * from any thread and readers never see a corrupted map. Changes that touch more than one structure (a user
+ * joining or leaving a party, renaming a party) hold the party's lock from {@link #getLock(UUID)} so they
+ * apply as a unit. Any compound change made outside this class should hold the same lock. Events and
+ * messages are still expected to be sent from the main thread.
+ *
+ * Read-heavy consumers (placeholders, tab completion, the API) should use {@link #getSnapshot()} instead. Every
+ * change calls {@link #markDirty()}, and once per tick at most a new immutable {@link PartySnapshot} is built on
+ * the main thread and published with a single volatile write.
+ *
+ * Writes to parties.json run on a single storage thread, so they never block the main thread and are applied
+ * in the order they were made. A party is copied into its JSON form when it's saved, so the write has the
+ * state the party was in at that moment. Saving several parties at once reads and writes the file only once.
+ */
 public class PartyHandler extends Mechanic {
 
+    private static final int LOCK_STRIPES = 64;
+
     private final Map<UUID, Party> partyMap;
+    private final Map<String, Party> nameIndex;
+    private final Map<UUID, Map<UUID, Invitation>> invitationIndex;
+    private final Map<UUID, Set<UUID>> pendingIndex;
+    private final Object[] locks;
+    private final AtomicBoolean dirty;
+    private final AtomicInteger playersInParties;
     private final JSONConfig config;
+    private final ExecutorService storage;
+    private volatile PartySnapshot snapshot;
 
     public PartyHandler() {
-        partyMap = new HashMap<>();
+        partyMap = new ConcurrentHashMap<>();
+        nameIndex = new ConcurrentHashMap<>();
+        invitationIndex = new ConcurrentHashMap<>();
+        pendingIndex = new ConcurrentHashMap<>();
+        locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++)
+            locks[i] = new Object();
+        dirty = new AtomicBoolean(false);
+        playersInParties = new AtomicInteger(0);
+        snapshot = PartySnapshot.EMPTY;
         config = new JSONConfig(PartyChat.getCore().getDataFolder(), "parties");
+        storage = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PartyChat Storage");
+            thread.setDaemon(true);
+            return thread;
+        });
         try {
             config.createConfig();
         } catch (FileNotFoundException e) {
@@ -41,6 +91,40 @@ public class PartyHandler extends Mechanic {
             loadParties();
             PartyChat.log("Loaded " + partyMap.values().size() + " parties from JSON.");
         }
+        publishSnapshot();
+    }
+
+    @Override
+    public void onPlayerJoin(Player player) {
+        // Most players aren't in a party, so check the user before looking anything up
+        User user = PartyChat.getDataHandler().getUser(player);
+        Party party = user == null ? null : user.getParty();
+        if (party != null) {
+            party.adjustOnlineCount(1);
+            markDirty();
+        }
+    }
+
+    @Override
+    public void onPlayerQuit(Player player) {
+        // Drop anything pending for the player so parties don't hold on to them
+        UUID playerID = player.getUniqueId();
+        getInvitations(player).forEach(invitation -> invitation.getParty().removePendingInvitation(playerID));
+        Set<UUID> pendingParties = pendingIndex.remove(playerID);
+        if (pendingParties != null)
+            for (UUID partyID : pendingParties) {
+                Party pendingParty = getParty(partyID);
+                if (pendingParty != null)
+                    pendingParty.clearPending(playerID);
+            }
+
+        // Most players aren't in a party, so check the user before looking anything up
+        User user = PartyChat.getDataHandler().getUser(player);
+        Party party = user == null ? null : user.getParty();
+        if (party != null) {
+            party.adjustOnlineCount(-1);
+            markDirty();
+        }
     }
 
     /**
@@ -50,10 +134,18 @@ public class PartyHandler extends Mechanic {
     public void onShutdown() {
         // Update all saved parties if persistent parties is enabled
         if (PartyChat.getDataHandler().persistentParties) {
-            for (Party party : partyMap.values())
-                saveParty(party);
+            saveParties(partyMap.values());
             PartyChat.log("Saved " + partyMap.values().size() + " parties to JSON.");
         }
+
+        // Let queued writes finish before the server stops
+        storage.shutdown();
+        try {
+            if (!storage.awaitTermination(10, TimeUnit.SECONDS))
+                PartyChat.error("Timed out waiting for parties to be saved to parties.json");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     public void loadParties() {
@@ -76,7 +168,7 @@ public class PartyHandler extends Mechanic {
                     partyJSON.get("isPublic").toString().equals("true"),
                     partyJSON.get("friendlyFire").toString().equals("true")
             );
-            partyMap.put(party.getId(), party);
+            addToPartyMap(party.getId(), party);
             members.forEach(member -> {
                 member.setPartyID(party.getId());
                 PartyChat.getDataHandler().addToUserMap(member);
@@ -84,8 +176,44 @@ public class PartyHandler extends Mechanic {
         }
     }
 
+    /**
+     * Save a party to parties.json on the storage thread.
+     * @param party The party to save.
+     * @return Future completing once the party is written.
+     */
+    public CompletableFuture<Void> saveParty(Party party) {
+        return saveParties(Collections.singletonList(party));
+    }
+
+    /**
+     * Save parties to parties.json on the storage thread, reading and writing the file once for all of them.
+     * @param parties The parties to save.
+     * @return Future completing once every party is written.
+     */
+    public CompletableFuture<Void> saveParties(Collection<Party> parties) {
+        Map<Object, Object> partyJson = new HashMap<>();
+        for (Party party : parties)
+            partyJson.put(party.getRawName(), serialize(party));
+        return runOnStorage(() -> {
+            try {
+                config.putInJSONObject(partyJson);
+            } catch (IOException | ParseException e) {
+                PartyChat.error("Unable to save " + (partyJson.size() == 1 ? "party \""
+                        + partyJson.keySet().iterator().next() + "\"" : partyJson.size() + " parties")
+                        + " to parties.json");
+                e.printStackTrace();
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private CompletableFuture<Void> runOnStorage(Runnable write) {
+        // Once the plugin is shutting down write on the calling thread instead of dropping the change
+        return CompletableFuture.runAsync(write, storage.isShutdown() ? Runnable::run : storage);
+    }
+
     @SuppressWarnings("unchecked")
-    public void saveParty(Party party) {
+    private JSONObject serialize(Party party) {
         JSONObject partyMeta = new JSONObject();
         partyMeta.put("name", party.getName());
         partyMeta.put("leaderID", party.getLeader().toString());
@@ -93,31 +221,33 @@ public class PartyHandler extends Mechanic {
                 .map(User::getPlayerID).collect(Collectors.toList())));
         partyMeta.put("isPublic", String.valueOf(party.isPublic()));
         partyMeta.put("friendlyFire", String.valueOf(party.allowsFriendlyFire()));
-
-        JSONObject partyJson = new JSONObject();
-        partyJson.put(party.getRawName(), partyMeta);
-
-        try {
-            config.putInJSONObject(partyJson);
-        } catch (IOException | ParseException e) {
-            PartyChat.error("Unable to save party \"" + party.getRawName() + "\" to parties.json");
-            e.printStackTrace();
-        }
+        return partyMeta;
     }
 
-    public void deleteParty(Party party) {
-        party.getMembers().forEach(member -> {
-            member.setInParty(false);
-            member.setPartyID(null);
-            member.setPartyChatToggle(false);
-        });
-        removeFromPartyMap(party.getId());
-        try {
-            config.removeFromJSONObject(party.getRawName());
-        } catch (IOException | ParseException e) {
-            PartyChat.error("Unable to remove party \"" + party.getRawName() + "\" from parties.json");
-            e.printStackTrace();
+    /**
+     * Disband a party and remove it from parties.json on the storage thread.
+     * @param party The party to delete.
+     * @return Future completing once the party is removed from parties.json.
+     */
+    public CompletableFuture<Void> deleteParty(Party party) {
+        synchronized (getLock(party.getId())) {
+            party.getMembers().forEach(member -> {
+                member.setInParty(false);
+                member.setPartyID(null);
+                member.setPartyChatToggle(false);
+            });
+            removeFromPartyMap(party.getId());
         }
+        String rawName = party.getRawName();
+        return runOnStorage(() -> {
+            try {
+                config.removeFromJSONObject(rawName);
+            } catch (IOException | ParseException e) {
+                PartyChat.error("Unable to remove party \"" + rawName + "\" from parties.json");
+                e.printStackTrace();
+                throw new CompletionException(e);
+            }
+        });
     }
 
     /**
@@ -126,26 +256,254 @@ public class PartyHandler extends Mechanic {
      * @return true -> taken | false -> free
      */
     public boolean isNameTaken(String name) {
-        for (Party party : partyMap.values()) {
-            if (party.getName().equalsIgnoreCase(name))
-                return true;
+        return nameIndex.containsKey(foldName(name));
+    }
+
+    /**
+     * Get a party by its name. Color codes and case are ignored.
+     * @param name The party's name.
+     * @return The party, if one with that name exists.
+     */
+    @Nullable
+    public Party getPartyByName(String name) {
+        return nameIndex.get(foldName(name));
+    }
+
+    /**
+     * Rename a party, keeping the name index up to date.
+     * @param party The party to rename.
+     * @param newName The party's new name.
+     */
+    public void renameParty(Party party, String newName) {
+        synchronized (getLock(party.getId())) {
+            unindexName(party);
+            party.setName(newName);
+            indexName(party);
         }
-        return false;
+        markDirty();
     }
 
+    /**
+     * Put a user in a party, updating both the user and the party as one change.
+     * @param party The party the user is joining.
+     * @param user The user joining.
+     */
+    public void addMember(Party party, User user) {
+        synchronized (getLock(party.getId())) {
+            user.setInParty(true);
+            user.setPartyID(party.getId());
+            if (party.hasMember(user.getPlayerID()))
+                return;
+            party.addMember(user);
+            playersInParties.incrementAndGet();
+            if (user.isOnline())
+                party.adjustOnlineCount(1);
+        }
+        markDirty();
+    }
+
+    /**
+     * Take a user out of a party, updating both the user and the party as one change.
+     * @param party The party the user is leaving.
+     * @param user The user leaving.
+     */
+    public void removeMember(Party party, User user) {
+        synchronized (getLock(party.getId())) {
+            user.setPartyID(null);
+            user.setInParty(false);
+            if (!party.hasMember(user.getPlayerID()))
+                return;
+            party.removeMember(user);
+            playersInParties.decrementAndGet();
+            if (user.isOnline())
+                party.adjustOnlineCount(-1);
+        }
+        markDirty();
+    }
+
+    /**
+     * Get the latest published snapshot of all parties. The snapshot is immutable and safe to read from any
+     * thread, but may trail the live party map by up to a tick.
+     * @return Party snapshot.
+     */
+    public PartySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the number of active parties.
+     * @return Party count.
+     */
+    public int getPartyCount() {
+        return partyMap.size();
+    }
+
+    /**
+     * Get the number of players in a party. This is maintained as parties and members come and go.
+     * @return Player count.
+     */
+    public int getPlayersInParties() {
+        return playersInParties.get();
+    }
+
+    /**
+     * Mark the snapshot as stale. Any number of calls before the next tick result in a single rebuild.
+     */
+    public void markDirty() {
+        if (dirty.compareAndSet(false, true)) {
+            if (PartyChat.getCore().isEnabled())
+                Bukkit.getScheduler().runTask(PartyChat.getCore(), this::publishSnapshot);
+            else
+                dirty.set(false);
+        }
+    }
+
+    /**
+     * Rebuild the snapshot from the live party map and publish it.
+     */
+    private void publishSnapshot() {
+        // Clear first so changes made while building schedule another rebuild
+        dirty.set(false);
+        snapshot = new PartySnapshot(snapshot.getEpoch() + 1, partyMap.values());
+    }
+
+    /**
+     * Get the lock guarding compound changes to a party. Locks are striped, so unrelated parties may share one.
+     * @param partyID The party's unique id.
+     * @return The lock object.
+     */
+    public Object getLock(UUID partyID) {
+        return locks[(partyID.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    private void indexName(Party party) {
+        nameIndex.put(foldName(party.getName()), party);
+    }
+
+    private void unindexName(Party party) {
+        // Only remove the entry if it still points at this party
+        nameIndex.remove(foldName(party.getName()), party);
+    }
+
+    /**
+     * Get the oldest pending invitation a player has received.
+     * @param invited The invited player.
+     * @return The invitation, if the player has one.
+     */
     @Nullable
-    public Party getParty(User user) {
-        return partyMap.get(user.getPartyID());
+    public Invitation getInvitation(Player invited) {
+        Map<UUID, Invitation> invitations = invitationIndex.get(invited.getUniqueId());
+        if (invitations == null)
+            return null;
+        synchronized (invitations) {
+            return invitations.isEmpty() ? null : invitations.values().iterator().next();
+        }
+    }
+
+    /**
+     * Get all pending invitations a player has received, oldest first.
+     * @param invited The invited player.
+     * @return Collection of invitations.
+     */
+    public Collection<Invitation> getInvitations(Player invited) {
+        Map<UUID, Invitation> invitations = invitationIndex.get(invited.getUniqueId());
+        if (invitations == null)
+            return Collections.emptyList();
+        synchronized (invitations) {
+            return new ArrayList<>(invitations.values());
+        }
+    }
+
+    /**
+     * Add an invitation to the invitee index. Called by {@link Party#addPendingInvitation(Player, Player)}.
+     * @param invitation The invitation to add.
+     */
+    public void indexInvitation(Invitation invitation) {
+        invitationIndex.compute(invitation.getInvited(), (k, invitations) -> {
+            if (invitations == null)
+                invitations = new LinkedHashMap<>();
+            synchronized (invitations) {
+                invitations.put(invitation.getParty().getId(), invitation);
+            }
+            return invitations;
+        });
+    }
+
+    /**
+     * Remove an invitation from the invitee index. Called by {@link Party#removePendingInvitation(UUID)}.
+     * @param invited The invited player's unique id.
+     * @param partyID The unique id of the party the player was invited to.
+     */
+    public void unindexInvitation(UUID invited, UUID partyID) {
+        invitationIndex.computeIfPresent(invited, (k, invitations) -> {
+            synchronized (invitations) {
+                invitations.remove(partyID);
+                return invitations.isEmpty() ? null : invitations;
+            }
+        });
+    }
+
+    /**
+     * Record that a player has a join request or summon pending in a party, so it can be cleared when they
+     * log out. Called by {@link Party}.
+     * @param playerID The player's unique id.
+     * @param partyID The party's unique id.
+     */
+    public void indexPending(UUID playerID, UUID partyID) {
+        pendingIndex.computeIfAbsent(playerID, k -> ConcurrentHashMap.newKeySet()).add(partyID);
+    }
+
+    /**
+     * Remove a player's pending entry for a party once nothing is pending there. Called by {@link Party}.
+     * @param playerID The player's unique id.
+     * @param partyID The party's unique id.
+     */
+    public void unindexPending(UUID playerID, UUID partyID) {
+        pendingIndex.computeIfPresent(playerID, (k, parties) -> {
+            parties.remove(partyID);
+            return parties.isEmpty() ? null : parties;
+        });
+    }
+
+    /**
+     * Cancel every pending expiration belonging to a party.
+     * @param party The party.
+     */
+    private void cancelExpirations(Party party) {
+        ExpiryHandler expiryHandler = PartyChat.getExpiryHandler();
+        party.getPendingInvitations().forEach(invite -> expiryHandler.cancel(ExpiryHandler.Type.INVITATION,
+                party.getId(), invite.getInvited()));
+        party.getPendingJoinRequests().forEach(playerID -> expiryHandler.cancel(ExpiryHandler.Type.JOIN_REQUEST,
+                party.getId(), playerID));
+        party.getBlockedPlayers().forEach(playerID -> expiryHandler.cancel(ExpiryHandler.Type.JOIN_BLOCK,
+                party.getId(), playerID));
+        party.getPendingSummons().forEach(playerID -> expiryHandler.cancel(ExpiryHandler.Type.SUMMON,
+                party.getId(), playerID));
+    }
+
+    /**
+     * Fold a party name into its index key: color codes stripped and lower case.
+     * @param name The name to fold.
+     * @return Index key.
+     */
+    private static String foldName(String name) {
+        return Chat.removeColorCodes(name).toLowerCase(Locale.ROOT);
     }
 
     @Nullable
-    public Party getParty(UUID uuid) {
-        return partyMap.get(uuid);
+    public Party getParty(@Nullable User user) {
+        return user == null ? null : getParty(user.getPartyID());
+    }
+
+    // The party map doesn't allow null keys, so users without a party id are checked here
+    @Nullable
+    public Party getParty(@Nullable UUID uuid) {
+        return uuid == null ? null : partyMap.get(uuid);
     }
 
     @Nullable
     public Party getParty(Player player) {
-        return partyMap.get(PartyChat.getDataHandler().getUser(player).getPartyID());
+        return getParty(PartyChat.getDataHandler().getUser(player));
     }
 
     /**
@@ -161,14 +519,32 @@ public class PartyHandler extends Mechanic {
      * @param party The party to add.
      */
     public void addToPartyMap(UUID uuid, Party party) {
-        partyMap.put(uuid, party);
+        Party previous = partyMap.put(uuid, party);
+        if (previous != party) {
+            if (previous != null) {
+                unindexName(previous);
+                playersInParties.addAndGet(-previous.getSize());
+            }
+            playersInParties.addAndGet(party.getSize());
+        }
+        indexName(party);
+        markDirty();
     }
 
     /**
-     * Remove a player from the party map.
-     * @param uuid The unique id of the player to remove.
+     * Remove a party from the party map.
+     * @param uuid The unique id of the party to remove.
      */
     public void removeFromPartyMap(UUID uuid) {
-        partyMap.remove(uuid);
+        Party party = partyMap.remove(uuid);
+        if (party != null) {
+            unindexName(party);
+            playersInParties.addAndGet(-party.getSize());
+            party.getPendingInvitations().forEach(invite -> unindexInvitation(invite.getInvited(), party.getId()));
+            party.getPendingJoinRequests().forEach(playerID -> unindexPending(playerID, party.getId()));
+            party.getPendingSummons().forEach(playerID -> unindexPending(playerID, party.getId()));
+            cancelExpirations(party);
+            markDirty();
+        }
     }
 }
@@ -0,0 +1,280 @@
+package dev.majek.pc.data;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable, typed copy of config.yml and commands.yml. {@link DataHandler} builds a
+ * new one on startup and reload and publishes it with a single reference swap, so hot paths read plain fields
+ * instead of walking the Bukkit configuration tree.
+ */
+public final class Settings {
+
+    // config.yml
+    private final boolean usePermissions;
+    private final String language;
+    private final List<String> supportedLanguages;
+    private final boolean perPlayerLanguage;
+    private final boolean persistentParties;
+    private final boolean blockInappropriateNames;
+    private final boolean blockInappropriateChat;
+    private final String blockedWordsFile;
+    private final List<String> blockedWords;
+    private final boolean publicOnCreation;
+    private final boolean defaultFriendlyFire;
+    private final int maxNameLength;
+    private final boolean disableGuis;
+    private final boolean autoSpy;
+    private final boolean consoleLog;
+    private final boolean onlyLeaderCanAdd;
+    private final int summonTeleportTime;
+    private final int summonBarUpdateRate;
+    private final int maxTeleportsPerTick;
+    private final int summonExpireTime;
+    private final int inviteExpireTime;
+    private final int joinExpireTime;
+    private final int blockTime;
+    private final int userCacheTTL;
+    private final boolean watchConfigFiles;
+    private final boolean debug;
+
+    // commands.yml
+    private final Map<String, CommandSettings> commands;
+
+    /**
+     * Bind the current contents of the config files.
+     * @param mainConfig config.yml.
+     * @param commandConfig commands.yml.
+     */
+    public Settings(FileConfiguration mainConfig, FileConfiguration commandConfig) {
+        this.usePermissions = mainConfig.getBoolean("use-permissions");
+        this.language = mainConfig.getString("language", "en_US");
+        this.supportedLanguages = Collections.unmodifiableList(mainConfig.getStringList("supported-languages"));
+        this.perPlayerLanguage = mainConfig.getBoolean("per-player-language");
+        this.persistentParties = mainConfig.getBoolean("persistent-parties");
+        this.blockInappropriateNames = mainConfig.getBoolean("block-inappropriate-names");
+        this.blockInappropriateChat = mainConfig.getBoolean("block-inappropriate-chat");
+        this.blockedWordsFile = mainConfig.getString("blocked-words-file", "");
+        this.blockedWords = Collections.unmodifiableList(mainConfig.getStringList("blocked-words"));
+        this.publicOnCreation = mainConfig.getBoolean("public-on-creation");
+        this.defaultFriendlyFire = mainConfig.getBoolean("default-friendly-fire");
+        this.maxNameLength = mainConfig.getInt("max-name-length");
+        this.disableGuis = mainConfig.getBoolean("disable-guis");
+        this.autoSpy = mainConfig.getBoolean("auto-spy");
+        this.consoleLog = mainConfig.getBoolean("console-log");
+        this.onlyLeaderCanAdd = mainConfig.getBoolean("only-leader-can-add");
+        this.summonTeleportTime = mainConfig.getInt("summon-teleport-time");
+        this.summonBarUpdateRate = Math.max(1, mainConfig.getInt("summon-bar-update-rate"));
+        this.maxTeleportsPerTick = Math.max(1, mainConfig.getInt("max-teleports-per-tick"));
+        this.summonExpireTime = mainConfig.getInt("summon-expire-time");
+        this.inviteExpireTime = mainConfig.getInt("invite-expire-time");
+        this.joinExpireTime = mainConfig.getInt("join-expire-time");
+        this.blockTime = mainConfig.getInt("block-time");
+        this.userCacheTTL = mainConfig.getInt("user-cache-ttl");
+        this.watchConfigFiles = mainConfig.getBoolean("watch-config-files");
+        this.debug = mainConfig.getBoolean("debug");
+
+        Map<String, CommandSettings> commands = new HashMap<>();
+        ConfigurationSection subcommands = commandConfig.getConfigurationSection("party-subcommands");
+        if (subcommands != null)
+            for (String command : subcommands.getKeys(false))
+                commands.put(command, new CommandSettings(subcommands.getConfigurationSection(command)));
+        this.commands = Collections.unmodifiableMap(commands);
+    }
+
+    public boolean usePermissions() {
+        return usePermissions;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public List<String> getSupportedLanguages() {
+        return supportedLanguages;
+    }
+
+    public boolean perPlayerLanguage() {
+        return perPlayerLanguage;
+    }
+
+    public boolean persistentParties() {
+        return persistentParties;
+    }
+
+    public boolean blockInappropriateNames() {
+        return blockInappropriateNames;
+    }
+
+    public boolean blockInappropriateChat() {
+        return blockInappropriateChat;
+    }
+
+    public String getBlockedWordsFile() {
+        return blockedWordsFile;
+    }
+
+    public List<String> getBlockedWords() {
+        return blockedWords;
+    }
+
+    public boolean publicOnCreation() {
+        return publicOnCreation;
+    }
+
+    public boolean defaultFriendlyFire() {
+        return defaultFriendlyFire;
+    }
+
+    public int getMaxNameLength() {
+        return maxNameLength;
+    }
+
+    public boolean disableGuis() {
+        return disableGuis;
+    }
+
+    public boolean autoSpy() {
+        return autoSpy;
+    }
+
+    public boolean consoleLog() {
+        return consoleLog;
+    }
+
+    public boolean onlyLeaderCanAdd() {
+        return onlyLeaderCanAdd;
+    }
+
+    public int getSummonTeleportTime() {
+        return summonTeleportTime;
+    }
+
+    public int getSummonBarUpdateRate() {
+        return summonBarUpdateRate;
+    }
+
+    public int getMaxTeleportsPerTick() {
+        return maxTeleportsPerTick;
+    }
+
+    public int getSummonExpireTime() {
+        return summonExpireTime;
+    }
+
+    public int getInviteExpireTime() {
+        return inviteExpireTime;
+    }
+
+    public int getJoinExpireTime() {
+        return joinExpireTime;
+    }
+
+    public int getBlockTime() {
+        return blockTime;
+    }
+
+    /**
+     * Get how long offline users outside a party are cached.
+     * @return TTL in minutes, or -1 to never evict.
+     */
+    public int getUserCacheTTL() {
+        return userCacheTTL;
+    }
+
+    public boolean watchConfigFiles() {
+        return watchConfigFiles;
+    }
+
+    public boolean debug() {
+        return debug;
+    }
+
+    /**
+     * Get the settings for a party subcommand from commands.yml.
+     * @param command The subcommand's name.
+     * @return Command settings, defaults if the command isn't in the file.
+     */
+    public CommandSettings getCommand(String command) {
+        return commands.getOrDefault(command, CommandSettings.DEFAULT);
+    }
+
+    /**
+     * Get the settings for every party subcommand in commands.yml.
+     * @return Unmodifiable map of subcommand name to settings.
+     */
+    public Map<String, CommandSettings> getCommands() {
+        return commands;
+    }
+
+    /**
+     * A party subcommand's section in commands.yml.
+     */
+    public static final class CommandSettings {
+
+        private static final CommandSettings DEFAULT = new CommandSettings(null);
+
+        private final String usage;
+        private final String description;
+        private final boolean disabled;
+        private final int cooldown;
+        private final List<String> aliases;
+
+        private CommandSettings(@Nullable ConfigurationSection section) {
+            if (section == null) {
+                this.usage = "";
+                this.description = "";
+                this.disabled = false;
+                this.cooldown = 0;
+                this.aliases = Collections.emptyList();
+                return;
+            }
+            this.usage = section.getString("usage", "");
+            this.description = section.getString("description", "");
+            this.disabled = section.getBoolean("disabled");
+            this.cooldown = section.getInt("cooldown");
+            this.aliases = Collections.unmodifiableList(section.getStringList("aliases").stream()
+                    .filter(alias -> !alias.equalsIgnoreCase("")).collect(Collectors.toList()));
+        }
+
+        public String getUsage() {
+            return usage;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public boolean isDisabled() {
+            return disabled;
+        }
+
+        public int getCooldown() {
+            return cooldown;
+        }
+
+        public List<String> getAliases() {
+            return aliases;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof CommandSettings))
+                return false;
+            CommandSettings other = (CommandSettings) o;
+            return disabled == other.disabled && cooldown == other.cooldown && usage.equals(other.usage)
+                    && description.equals(other.description) && aliases.equals(other.aliases);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(usage, description, disabled, cooldown, aliases);
+        }
+    }
+}
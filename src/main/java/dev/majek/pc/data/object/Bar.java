@@ -8,10 +8,23 @@ import org.bukkit.boss.BarStyle;
 import org.bukkit.boss.BossBar;
 import org.bukkit.entity.Player;
 
+/**
+ * A boss bar showing the progress of a summon teleport. Each summon gets its own bar.
+ * The bar is advanced by {@link dev.majek.pc.mechanic.TeleportHandler}, not by a task of its own.
+ */
 public class Bar {
 
-    private static BossBar bar;
-    private int taskID;
+    private final BossBar bar;
+
+    /**
+     * Create a bar with its text in a player's language.
+     * @param player The player who will see the bar.
+     */
+    public Bar(Player player) {
+        bar = Bukkit.createBossBar(Chat.applyColorCodes(PartyChat.getLanguageHandler().getLanguage(player)
+                .getMessage(Message.TELEPORT_BAR_TEXT).getRaw()), BarColor.BLUE, BarStyle.SOLID);
+        bar.setVisible(true);
+    }
 
     public void addPlayer(Player p) {
         bar.addPlayer(p);
@@ -21,32 +34,23 @@ public class Bar {
         bar.removePlayer(p);
     }
 
-    public void createBar(Integer delay) {
-        bar = Bukkit.createBossBar(Chat.applyColorCodes(PartyChat.getDataHandler().getConfigString(PartyChat.getDataHandler()
-                .messages, "teleport-bar-text")), BarColor.BLUE, BarStyle.SOLID);
-        bar.setVisible(true); cast(delay);
+    /**
+     * Set the bar's progress, clamped between 0 and 1.
+     * @param progress The new progress.
+     */
+    public void setProgress(double progress) {
+        bar.setProgress(Math.max(0.0, Math.min(1.0, progress)));
     }
 
+    /**
+     * Hide the bar and remove all players from it.
+     */
     public void removeBar() {
         bar.setVisible(false);
+        bar.removeAll();
     }
 
     public BossBar getBar() {
         return bar;
     }
-
-    public void cast(Integer delay) {
-        taskID = Bukkit.getScheduler().scheduleSyncRepeatingTask(PartyChat.instance, new Runnable() {
-            double progress = 1.0; final double time = 1.0 / (delay * 20);
-            @Override
-            public void run() {
-                bar.setProgress(progress);
-                progress = progress - time;
-                if (progress <= 0.0) {
-                    Bukkit.getScheduler().cancelTask(taskID);
-                }
-            }
-        }, 0, 0);
-    }
-
 }
@@ -0,0 +1,68 @@
+package dev.majek.pc.data.object;
+
+import java.util.UUID;
+
+/**
+ * A pending invitation for a player to join a party.
+ */
+public class Invitation {
+
+    private final Party party;
+    private final UUID invited;
+    private final UUID inviter;
+    private final long expiry;
+
+    /**
+     * Constructed when a party member invites a player to the party.
+     * @param party The party the player is invited to.
+     * @param invited The unique id of the player being invited.
+     * @param inviter The unique id of the player sending the invitation.
+     * @param expiry The time in milliseconds the invitation expires, or -1 if it never expires.
+     */
+    public Invitation(Party party, UUID invited, UUID inviter, long expiry) {
+        this.party = party;
+        this.invited = invited;
+        this.inviter = inviter;
+        this.expiry = expiry;
+    }
+
+    /**
+     * Get the party the player is invited to.
+     * @return Party.
+     */
+    public Party getParty() {
+        return party;
+    }
+
+    /**
+     * Get the unique id of the player who was invited.
+     * @return Invited player's unique id.
+     */
+    public UUID getInvited() {
+        return invited;
+    }
+
+    /**
+     * Get the unique id of the player who sent the invitation.
+     * @return Inviting player's unique id.
+     */
+    public UUID getInviter() {
+        return inviter;
+    }
+
+    /**
+     * Get the time in milliseconds the invitation expires.
+     * @return Expiry time, or -1 if the invitation never expires.
+     */
+    public long getExpiry() {
+        return expiry;
+    }
+
+    /**
+     * Check whether the invitation has expired.
+     * @return true -> expired | false -> still valid
+     */
+    public boolean isExpired() {
+        return expiry != -1 && System.currentTimeMillis() >= expiry;
+    }
+}
@@ -3,37 +3,200 @@ package dev.majek.pc.data.object;
 import dev.majek.pc.PartyChat;
 import dev.majek.pc.data.storage.YAMLConfig;
 import dev.majek.pc.data.storage.ConfigUpdater;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+/**
+ * A plugin language and its messages. The language file is compiled into a table of {@link MessageTemplate}s
+ * indexed by {@link Message}, so sending a message never touches the yaml. Keys missing from the file are
+ * reported when it's compiled and fall back to the bundled file, then to en_US.
+ *
+ * Only the compiled table is kept, the parsed yaml is dropped once it's compiled.
+ *
+ * Languages are loaded the first time they're used. {@link #loadAsync(Executor)} does the file work on another
+ * thread ahead of time, and if something needs the language before that finishes it waits for the result.
+ */
 public class Language {
 
-    private YAMLConfig messagesConfig;
-    private final String langID;
+    private static FileConfiguration fallback;
 
+    private final String langID;
+    private volatile MessageTemplate[][] messages;
+    private volatile int version;
+    private CompletableFuture<MessageTemplate[][]> loading;
 
     public Language(String langID) {
         this.langID = langID;
-        updateFile();
     }
 
-    public void updateFile() {
-        messagesConfig = new YAMLConfig(PartyChat.getCore(), null, "Lang/" + langID + ".yml");
+    /**
+     * Bring the language file up to date, parse it, and compile it. Nothing is published, so this is safe to run
+     * off the main thread.
+     * @return The compiled messages.
+     */
+    private MessageTemplate[][] prepare() {
+        YAMLConfig messagesConfig = new YAMLConfig(PartyChat.getCore(), null, "Lang/" + langID + ".yml");
         messagesConfig.saveDefaultConfig();
-        File en_US_FILE = new File(PartyChat.getCore().getDataFolder(), "Lang/" + langID + ".yml");
-        //createFileIfNotExists(configManager,  en_US_FILE);
+        File file = new File(PartyChat.getCore().getDataFolder(), "Lang/" + langID + ".yml");
         try {
-            ConfigUpdater.update(PartyChat.getCore(), "Lang/" + langID + ".yml", en_US_FILE, Collections.emptyList());
+            ConfigUpdater.update(PartyChat.getCore(), "Lang/" + langID + ".yml", file, Collections.emptyList());
         } catch (IOException e) {
             e.printStackTrace();
         }
-        messagesConfig.reloadConfig();
+        return compile(messagesConfig.parseConfig());
+    }
+
+    /**
+     * Start loading the language on another thread. The result is published on the main thread once it's ready.
+     * Does nothing if the language is already loaded or loading.
+     * @param executor The executor to load on.
+     */
+    public synchronized void loadAsync(Executor executor) {
+        if (messages != null || loading != null)
+            return;
+        loading = CompletableFuture.supplyAsync(this::prepare, executor);
+        loading.thenAccept(loaded -> Bukkit.getScheduler().runTask(PartyChat.getCore(), () -> publish(loaded)));
+    }
+
+    /**
+     * Get the message table, loading the language now if it hasn't been loaded yet.
+     * @return Message table.
+     */
+    private MessageTemplate[][] getMessages() {
+        MessageTemplate[][] messages = this.messages;
+        return messages != null ? messages : load();
+    }
+
+    private synchronized MessageTemplate[][] load() {
+        if (messages == null) {
+            MessageTemplate[][] loaded = null;
+            if (loading != null) {
+                try {
+                    loaded = loading.join();
+                } catch (CompletionException e) {
+                    PartyChat.error("Error loading Lang/" + langID + ".yml in the background, trying again.");
+                    e.printStackTrace();
+                }
+            }
+            publish(loaded == null ? prepare() : loaded);
+        }
+        return messages;
+    }
+
+    private synchronized void publish(MessageTemplate[][] loaded) {
+        if (messages != null)
+            return; // Already loaded, possibly by a reload since this started
+        messages = loaded;
+        version++;
+        loading = null;
+    }
+
+    /**
+     * Get the language's version, which goes up every time its messages are recompiled. Anything built from the
+     * messages can compare versions to know when to rebuild.
+     * @return Version.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Whether or not the language has been loaded yet.
+     * @return True if it's loaded.
+     */
+    public boolean isLoaded() {
+        return messages != null;
+    }
+
+    /**
+     * Reload the language file from disk and recompile its messages.
+     */
+    public synchronized void reload() {
+        messages = compile(new YAMLConfig(PartyChat.getCore(), null, "Lang/" + langID + ".yml").parseConfig());
+        version++;
+    }
+
+    /**
+     * Replace the language file with one that was already parsed and recompile its messages.
+     * @param config The parsed language file.
+     */
+    public synchronized void setConfig(FileConfiguration config) {
+        messages = compile(config);
+        version++;
+    }
+
+    /**
+     * Compile every message in a language file into a message table. Missing keys are logged here so they
+     * show up when the language is loaded instead of when someone triggers the message.
+     * @param config The language file.
+     * @return Message table.
+     */
+    private MessageTemplate[][] compile(FileConfiguration config) {
+        FileConfiguration fallback = getFallback();
+        String prefix = config.getString("prefix", fallback.getString("prefix", ""));
+        MessageTemplate[][] messages = new MessageTemplate[Message.VALUES.length][];
+        List<String> missing = new ArrayList<>();
+        for (Message message : Message.VALUES) {
+            String path = message.getPath();
+            if (!config.contains(path, true))
+                missing.add(path);
+            FileConfiguration source = config.contains(path) ? config : fallback;
+            List<String> lines = message.isList() ? source.getStringList(path)
+                    : Collections.singletonList(source.getString(path, path));
+            MessageTemplate[] templates = new MessageTemplate[lines.size()];
+            for (int i = 0; i < templates.length; i++)
+                templates[i] = MessageTemplate.compile(lines.get(i), prefix);
+            messages[message.ordinal()] = templates;
+        }
+        if (!missing.isEmpty())
+            PartyChat.error("Lang/" + langID + ".yml is missing " + missing.size() + " message(s), using defaults for: "
+                    + String.join(", ", missing));
+        return messages;
+    }
+
+    /**
+     * Get a compiled message. For list messages this is the first line.
+     * @param message The message.
+     * @return Compiled message.
+     */
+    public MessageTemplate getMessage(Message message) {
+        MessageTemplate[] templates = getMessages()[message.ordinal()];
+        return templates.length == 0 ? MessageTemplate.compile("", "") : templates[0];
     }
 
-    public YAMLConfig getMessagesConfig() {
-        return messagesConfig;
+    /**
+     * Get every line of a compiled message.
+     * @param message The message.
+     * @return Compiled lines.
+     */
+    public MessageTemplate[] getMessageList(Message message) {
+        return getMessages()[message.ordinal()];
+    }
+
+    /**
+     * Get the bundled en_US file, used for keys that aren't in a language's file or its bundled file.
+     * @return The bundled en_US messages.
+     */
+    private static synchronized FileConfiguration getFallback() {
+        if (fallback == null) {
+            InputStream stream = PartyChat.getCore().getResource("Lang/en_US.yml");
+            fallback = stream == null ? new YamlConfiguration()
+                    : YamlConfiguration.loadConfiguration(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        }
+        return fallback;
     }
 
     public String getLangID() {
@@ -0,0 +1,98 @@
+package dev.majek.pc.data.object;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The members of a party. Adding, removing, membership checks, and picking a random member are all constant
+ * time, so large parties cost the same to update as small ones. Iteration goes through {@link #snapshot()},
+ * an immutable copy that is only rebuilt after the members change.
+ */
+public class MemberSet {
+
+    private final List<User> members;
+    private final Map<UUID, Integer> indexes;
+    private volatile List<User> snapshot;
+
+    public MemberSet() {
+        this.members = new ArrayList<>();
+        this.indexes = new ConcurrentHashMap<>();
+        this.snapshot = Collections.emptyList();
+    }
+
+    /**
+     * Add a member.
+     * @param user The user to add.
+     * @return true -> added | false -> already a member
+     */
+    public synchronized boolean add(User user) {
+        if (indexes.putIfAbsent(user.getPlayerID(), members.size()) != null)
+            return false;
+        members.add(user);
+        snapshot = null;
+        return true;
+    }
+
+    /**
+     * Remove a member. The last member is moved into the removed member's slot, so member order isn't kept.
+     * @param playerID The unique id of the member to remove.
+     * @return true -> removed | false -> wasn't a member
+     */
+    public synchronized boolean remove(UUID playerID) {
+        Integer index = indexes.remove(playerID);
+        if (index == null)
+            return false;
+        User last = members.remove(members.size() - 1);
+        if (index < members.size()) {
+            members.set(index, last);
+            indexes.put(last.getPlayerID(), index);
+        }
+        snapshot = null;
+        return true;
+    }
+
+    /**
+     * Check if a player is a member.
+     * @param playerID The player's unique id.
+     * @return true -> member | false -> not a member
+     */
+    public boolean contains(UUID playerID) {
+        return indexes.containsKey(playerID);
+    }
+
+    /**
+     * Get the number of members.
+     * @return Member count.
+     */
+    public int size() {
+        return indexes.size();
+    }
+
+    /**
+     * Pick a random member.
+     * @return A random member, or null if there are none.
+     */
+    @Nullable
+    public synchronized User random() {
+        if (members.isEmpty())
+            return null;
+        return members.get(ThreadLocalRandom.current().nextInt(members.size()));
+    }
+
+    /**
+     * Get an immutable copy of the members for iteration. The copy is shared until the members next change.
+     * @return Unmodifiable list of members.
+     */
+    public List<User> snapshot() {
+        List<User> current = snapshot;
+        if (current != null)
+            return current;
+        synchronized (this) {
+            if (snapshot == null)
+                snapshot = Collections.unmodifiableList(new ArrayList<>(members));
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package dev.majek.pc.data.object;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every message in the language files. Each language compiles its file into a table indexed by these keys,
+ * so looking a message up is an array index and a key missing from a file is reported when it's loaded.
+ */
+public enum Message {
+
+    ADD_SELF("add-self"),
+    BUG_REPORT("bug-report"),
+    CHOOSE_TOGGLE("choose-toggle"),
+    COMMAND_DISABLED("command-disabled"),
+    COMMAND_ERROR("command-error"),
+    COMMAND_ERROR_STAFF("command-error-staff"),
+    CONSOLE_SPY("console-spy"),
+    COOLDOWN("cooldown"),
+    CURRENT_VALUE("current-value"),
+    DECLINE_JOIN("decline-join"),
+    DENY_JOIN("deny-join"),
+    ERROR("error"),
+    EXPIRED_INVITE("expired-invite"),
+    EXPIRED_JOIN("expired-join"),
+    FRIENDLY_FIRE_NOT_ALLOWED("friendly-fire-not-allowed"),
+    FRIENDLY_FIRE_SET_DISABLED("friendly-fire-set-disabled"),
+    FRIENDLY_FIRE_SET_ENABLED("friendly-fire-set-enabled"),
+    FRIENDLY_FIRE_STATUS("friendly-fire-status"),
+    GETTING_LOG("getting-log"),
+    GUI_BROWSE("gui-browse"),
+    GUI_BROWSER_TITLE("gui-browser-title"),
+    GUI_CHANGE_LORE("gui-change-lore", true),
+    GUI_DISABLED("gui-disabled"),
+    GUI_ENABLED("gui-enabled"),
+    GUI_FRIENDLY_FIRE("gui-friendly-fire"),
+    GUI_LEADER("gui-leader"),
+    GUI_LEAVE("gui-leave"),
+    GUI_MEMBER("gui-member"),
+    GUI_MEMBER_ITEM("gui-member-item"),
+    GUI_MEMBER_ITEM_LORE("gui-member-item-lore", true),
+    GUI_NEXT_PAGE("gui-next-page"),
+    GUI_OFFLINE("gui-offline"),
+    GUI_ONLINE("gui-online"),
+    GUI_PAGE("gui-page"),
+    GUI_PARTY_ITEM("gui-party-item"),
+    GUI_PARTY_ITEM_LORE("gui-party-item-lore", true),
+    GUI_PARTY_TITLE("gui-party-title"),
+    GUI_PREVIOUS_PAGE("gui-previous-page"),
+    GUI_PRIVATE("gui-private"),
+    GUI_PUBLIC("gui-public"),
+    GUI_VISIBILITY("gui-visibility"),
+    IN_PARTY("in-party"),
+    INAPPROPRIATE_NAME("inappropriate-name"),
+    INFO_LEADER("info-leader"),
+    INFO_MEMBERS("info-members"),
+    INVALID_ARG("invalid-arg"),
+    INVITE_MESSAGE("invite-message", true),
+    INVITE_SENT("invite-sent"),
+    JOIN_DENIED("join-denied"),
+    JOIN_WAIT("join-wait"),
+    LANGUAGE_SET("language-set"),
+    LEADER_OFFLINE("leader-offline"),
+    LOCATION_UNSAFE("location-unsafe"),
+    MESSAGE_FORMAT("message-format"),
+    MUTED("muted"),
+    NAME_ONLY_ONE("name-only-one"),
+    NAME_TAKEN("name-taken"),
+    NAME_TOO_LONG("name-too-long"),
+    NEW_LEADER("new-leader"),
+    NO_CONSOLE("no-console"),
+    NO_INVITES("no-invites"),
+    NO_ITEM("no-item"),
+    NO_NAME("no-name"),
+    NO_PERMISSION("no-permission"),
+    NO_REQUEST("no-request"),
+    NO_USAGE("no-usage"),
+    NOT_ALLOWED("not-allowed"),
+    NOT_IN_PARTY("not-in-party"),
+    NOT_LEADER("not-leader"),
+    NOT_ONLINE("not-online"),
+    PARTY_CREATED("party-created", true),
+    PARTY_DISBANDED("party-disbanded"),
+    PARTY_HELP1("party-help1", true),
+    PARTY_HELP2("party-help2", true),
+    PARTY_INFO("party-info", true),
+    PARTY_PRIVATE("party-private"),
+    PARTY_RENAME("party-rename"),
+    PC_DISABLED("pc-disabled"),
+    PC_ENABLED("pc-enabled"),
+    PLAYER_IN_PARTY("player-in-party"),
+    PLAYER_JOIN("player-join"),
+    PLAYER_LEAVE("player-leave"),
+    PLAYER_NOT_IN_PARTY("player-not-in-party"),
+    PLAYER_REMOVED("player-removed"),
+    PLUGIN_RELOADED("plugin-reloaded"),
+    PREFIX("prefix"),
+    PROMOTE_SELF("promote-self"),
+    REMOVE_LEADER("remove-leader"),
+    REMOVE_SELF("remove-self"),
+    REQUEST_JOIN("request-join", true),
+    REQUEST_SENT("request-sent"),
+    SPECIFY_FIELD("specify-field"),
+    SPECIFY_PARTY("specify-party"),
+    SPECIFY_PLAYER("specify-player"),
+    SPECIFY_SUBCOMMAND("specify-subcommand"),
+    SPY_DISABLED("spy-disabled"),
+    SPY_ENABLED("spy-enabled"),
+    SPY_FORMAT("spy-format"),
+    SUMMON_REQUEST("summon-request", true),
+    SUMMON_SENT("summon-sent"),
+    TELEPORT_ACCEPTED("teleport-accepted"),
+    TELEPORT_BAR_TEXT("teleport-bar-text"),
+    TELEPORT_CANCELED("teleport-canceled"),
+    TELEPORT_CANCELED_LEADER("teleport-canceled-leader"),
+    TELEPORT_DENIED("teleport-denied"),
+    TELEPORT_DENIED_PLAYER("teleport-denied-player"),
+    TELEPORT_PREPARE("teleport-prepare"),
+    TELEPORT_QUEUED("teleport-queued"),
+    TELEPORT_TIMEOUT("teleport-timeout"),
+    TELEPORT_UNSAFE("teleport-unsafe"),
+    TELEPORTED("teleported"),
+    TOGGLE_PRIVATE("toggle-private"),
+    TOGGLE_PUBLIC("toggle-public"),
+    UNKNOWN_COMMAND("unknown-command"),
+    UNKNOWN_PARTY("unknown-party"),
+    UNKNOWN_PLAYER("unknown-player"),
+    UPDATED_VALUE("updated-value"),
+    YOU_DECLINE("you-decline"),
+    YOU_JOIN("you-join"),
+    YOU_LEADER("you-leader"),
+    YOU_LEAVE("you-leave"),
+    YOU_PROMOTED("you-promoted"),
+    YOU_REMOVED("you-removed");
+
+    public static final Message[] VALUES = values();
+    private static final Map<String, Message> byPath = new HashMap<>();
+
+    static {
+        for (Message message : VALUES)
+            byPath.put(message.path, message);
+    }
+
+    private final String path;
+    private final boolean list;
+
+    Message(String path) {
+        this(path, false);
+    }
+
+    Message(String path, boolean list) {
+        this.path = path;
+        this.list = list;
+    }
+
+    /**
+     * Get the message's key in the language files.
+     * @return Path.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Whether or not the message is a list of lines rather than a single line.
+     * @return True if it's a list.
+     */
+    public boolean isList() {
+        return list;
+    }
+
+    /**
+     * Get a message by its key in the language files.
+     * @param path The key.
+     * @return The message, or null if there's no message with that key.
+     */
+    public static Message fromPath(String path) {
+        return byPath.get(path);
+    }
+}
@@ -1,26 +1,34 @@
 package dev.majek.pc.data.object;
 
 import dev.majek.pc.PartyChat;
+import dev.majek.pc.data.ExpiryHandler;
 import dev.majek.pc.util.Chat;
-import dev.majek.pc.util.Pair;
 import org.bukkit.entity.Player;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Party {
 
-    private String                              name;
-    private UUID                                id;
-    private boolean                             isPublic;
-    private boolean                             friendlyFire;
-    private UUID                                leader;
-    private final List<User>                    members;
-    private final List<Player>                  pendingJoinRequests;
-    private final List<Pair<Player, Player>>    pendingInvitations;
-    private final List<Player>                  blockedPlayers;
-    private final List<Player>                  pendingSummons;
+    private volatile String                     name;
+    private volatile UUID                       id;
+    private volatile boolean                    isPublic;
+    private volatile boolean                    friendlyFire;
+    private volatile UUID                       leader;
+    private final MemberSet                     members;
+    private final Map<UUID, Long>               pendingJoinRequests;
+    private final Map<UUID, Invitation>         pendingInvitations;
+    private final Map<UUID, Long>               blockedPlayers;
+    private final Map<UUID, Long>               pendingSummons;
+    private final AtomicInteger                 onlineCount;
 
     /**
      * Constructed when an online player creates a new party.
@@ -31,16 +39,15 @@ public class Party {
         this.name = partyName;
         this.id = UUID.randomUUID();
         this.leader = leader.getUniqueId();
-        this.members = new CopyOnWriteArrayList<>();
+        this.members = new MemberSet();
         this.members.add(PartyChat.getDataHandler().getUser(leader));
-        this.isPublic = PartyChat.getDataHandler().getConfigBoolean(
-                PartyChat.getDataHandler().mainConfig, "public-on-creation");
-        this.friendlyFire = PartyChat.getDataHandler().getConfigBoolean(
-                PartyChat.getDataHandler().mainConfig, "default-friendly-fire");
-        this.pendingInvitations = new CopyOnWriteArrayList<>();
-        this.pendingJoinRequests = new CopyOnWriteArrayList<>();
-        this.blockedPlayers = new CopyOnWriteArrayList<>();
-        this.pendingSummons = new CopyOnWriteArrayList<>();
+        this.onlineCount = new AtomicInteger(1);
+        this.isPublic = PartyChat.getDataHandler().getSettings().publicOnCreation();
+        this.friendlyFire = PartyChat.getDataHandler().getSettings().defaultFriendlyFire();
+        this.pendingInvitations = new ConcurrentHashMap<>();
+        this.pendingJoinRequests = new ConcurrentHashMap<>();
+        this.blockedPlayers = new ConcurrentHashMap<>();
+        this.pendingSummons = new ConcurrentHashMap<>();
     }
 
     /**
@@ -55,16 +62,16 @@ public class Party {
         this.name = partyName;
         this.id = UUID.randomUUID();
         this.leader = UUID.fromString(leaderUUID);
-        if (members == null)
-            this.members = new CopyOnWriteArrayList<>();
-        else
-            this.members = new CopyOnWriteArrayList<>(members);
+        this.members = new MemberSet();
+        if (members != null)
+            members.forEach(this.members::add);
+        this.onlineCount = new AtomicInteger((int) this.members.snapshot().stream().filter(User::isOnline).count());
         this.isPublic = isPublic;
         this.friendlyFire = friendlyFire;
-        this.pendingInvitations = new CopyOnWriteArrayList<>();
-        this.pendingJoinRequests = new CopyOnWriteArrayList<>();
-        this.blockedPlayers = new CopyOnWriteArrayList<>();
-        this.pendingSummons = new CopyOnWriteArrayList<>();
+        this.pendingInvitations = new ConcurrentHashMap<>();
+        this.pendingJoinRequests = new ConcurrentHashMap<>();
+        this.blockedPlayers = new ConcurrentHashMap<>();
+        this.pendingSummons = new ConcurrentHashMap<>();
     }
 
     /**
@@ -111,11 +118,43 @@ public class Party {
 
 
     /**
-     * Get a list of the party member's unique ids.
+     * Get the party's members. This is an immutable copy, safe to iterate while members come and go.
      * @return List of members.
      */
     public List<User> getMembers() {
-        return members;
+        return members.snapshot();
+    }
+
+    /**
+     * Get the party's members who are currently online.
+     * @return List of online players.
+     */
+    public List<Player> getOnlineMembers() {
+        List<Player> online = new ArrayList<>();
+        for (User member : members.snapshot()) {
+            Player player = member.getPlayer();
+            if (player != null)
+                online.add(player);
+        }
+        return online;
+    }
+
+    /**
+     * Check if a player is a member of the party.
+     * @param playerID The player's unique id.
+     * @return true -> member | false -> not a member
+     */
+    public boolean hasMember(UUID playerID) {
+        return members.contains(playerID);
+    }
+
+    /**
+     * Pick a random party member.
+     * @return A random member, or null if the party is empty.
+     */
+    @Nullable
+    public User getRandomMember() {
+        return members.random();
     }
 
     /**
@@ -131,7 +170,7 @@ public class Party {
      * @param user User to remove.
      */
     public void removeMember(User user) {
-        members.remove(user);
+        members.remove(user.getPlayerID());
     }
 
     /**
@@ -142,6 +181,22 @@ public class Party {
         return members.size();
     }
 
+    /**
+     * Get the number of party members who are online.
+     * @return Online member count.
+     */
+    public int getOnlineCount() {
+        return onlineCount.get();
+    }
+
+    /**
+     * Adjust the online member count. This is kept up to date by {@link dev.majek.pc.data.PartyHandler}.
+     * @param delta The change in online members.
+     */
+    public void adjustOnlineCount(int delta) {
+        onlineCount.addAndGet(delta);
+    }
+
     /**
      * Get party status: public or private.
      * @return true -> public | false -> private
@@ -156,6 +211,7 @@ public class Party {
      */
     public void setPublic(boolean isPublic) {
         this.isPublic = isPublic;
+        PartyChat.getPartyHandler().markDirty();
     }
 
     /**
@@ -172,6 +228,7 @@ public class Party {
      */
     public void setFriendlyFire(boolean friendlyFire) {
         this.friendlyFire = friendlyFire;
+        PartyChat.getPartyHandler().markDirty();
     }
 
     /**
@@ -188,104 +245,186 @@ public class Party {
      */
     public void setLeader(UUID leader) {
         this.leader = leader;
+        PartyChat.getPartyHandler().markDirty();
     }
 
     /**
-     * Get a list of players who have pending join requests.
+     * Get the unique ids of players who have pending join requests.
      * These are players who have requested to join the party.
-     * @return List of players.
+     * @return Unmodifiable set of player ids.
+     */
+    public Set<UUID> getPendingJoinRequests() {
+        return Collections.unmodifiableSet(pendingJoinRequests.keySet());
+    }
+
+    /**
+     * Check if a player has a pending join request that hasn't expired.
+     * @param playerID The player's unique id.
+     * @return true -> pending | false -> not pending
      */
-    public List<Player> getPendingJoinRequests() {
-        return pendingJoinRequests;
+    public boolean hasPendingJoinRequest(UUID playerID) {
+        return isLive(pendingJoinRequests.get(playerID));
     }
 
     /**
-     * Add a player to the list of pending join requests.
-     * @param player Player to add.
+     * Add a pending join request. It expires after the configured join-expire-time.
+     * @param playerID The unique id of the player requesting to join.
      */
-    public void addPendingJoinRequest(Player player) {
-        pendingJoinRequests.add(player);
+    public void addPendingJoinRequest(UUID playerID) {
+        pendingJoinRequests.put(playerID, expiryFrom(PartyChat.getDataHandler().getSettings().getJoinExpireTime()));
+        PartyChat.getPartyHandler().indexPending(playerID, id);
     }
 
     /**
-     * Remove a player from the list of pending join requests.
-     * @param player Player to remove.
+     * Remove a pending join request.
+     * @param playerID The unique id of the player who requested to join.
      */
-    public void removePendingJoinRequest(Player player) {
-        pendingJoinRequests.remove(player);
+    public void removePendingJoinRequest(UUID playerID) {
+        pendingJoinRequests.remove(playerID);
+        PartyChat.getExpiryHandler().cancel(ExpiryHandler.Type.JOIN_REQUEST, id, playerID);
+        unindexIfClear(playerID);
     }
 
     /**
-     * Get a list of players who have pending invitations.
-     * These are players who have been invited to join the party.
-     * @return List of players.
+     * Get the party's pending invitations.
+     * These are for players who have been invited to join the party.
+     * @return Unmodifiable collection of invitations.
      */
-    public List<Pair<Player, Player>> getPendingInvitations() {
-        return pendingInvitations;
+    public Collection<Invitation> getPendingInvitations() {
+        return Collections.unmodifiableCollection(pendingInvitations.values());
     }
 
     /**
-     * Add a player to the list of pending invitations.
-     * @param invited Player to add.
+     * Check if a player has a pending invitation that hasn't expired.
+     * @param playerID The invited player's unique id.
+     * @return true -> pending | false -> not pending
+     */
+    public boolean hasPendingInvitation(UUID playerID) {
+        Invitation invitation = pendingInvitations.get(playerID);
+        return invitation != null && !invitation.isExpired();
+    }
+
+    /**
+     * Add a pending invitation. It expires after the configured invite-expire-time. This replaces any
+     * invitation the player already has from this party.
+     * @param invited The player being invited.
      * @param inviter The player inviting the other player.
      */
     public void addPendingInvitation(Player invited, Player inviter) {
-        pendingInvitations.add(new Pair<>(invited, inviter));
+        removePendingInvitation(invited.getUniqueId());
+        Invitation invitation = new Invitation(this, invited.getUniqueId(), inviter.getUniqueId(),
+                expiryFrom(PartyChat.getDataHandler().getSettings().getInviteExpireTime()));
+        pendingInvitations.put(invited.getUniqueId(), invitation);
+        PartyChat.getPartyHandler().indexInvitation(invitation);
+    }
+
+    /**
+     * Remove a pending invitation.
+     * @param playerID The invited player's unique id.
+     */
+    public void removePendingInvitation(UUID playerID) {
+        pendingInvitations.remove(playerID);
+        PartyChat.getPartyHandler().unindexInvitation(playerID, id);
+        PartyChat.getExpiryHandler().cancel(ExpiryHandler.Type.INVITATION, id, playerID);
+    }
+
+    /**
+     * Get the unique ids of players who are temporarily blocked from requesting to join the party.
+     * @return Unmodifiable set of player ids.
+     */
+    public Set<UUID> getBlockedPlayers() {
+        return Collections.unmodifiableSet(blockedPlayers.keySet());
     }
 
     /**
-     * Remove a player from the list of pending invitations.
-     * @param player Player to remove.
+     * Check if a player is still blocked from requesting to join the party.
+     * @param playerID The player's unique id.
+     * @return true -> blocked | false -> not blocked
      */
-    public void removePendingInvitation(Player player) {
-        pendingInvitations.removeIf(toRemove -> toRemove.getFirst() == player);
+    public boolean isBlocked(UUID playerID) {
+        return isLive(blockedPlayers.get(playerID));
     }
 
     /**
-     * Get a list of players who are temporarily blocked from requesting to join the party.
-     * @return List of players.
+     * Temporarily block a player from requesting to join. The block lasts for the configured block-time.
+     * Blocks are kept if the player logs out so they can't be skipped by relogging.
+     * @param playerID The player's unique id.
      */
-    public List<Player> getBlockedPlayers() {
-        return blockedPlayers;
+    public void addBlockedPlayer(UUID playerID) {
+        blockedPlayers.put(playerID, expiryFrom(PartyChat.getDataHandler().getSettings().getBlockTime()));
     }
 
     /**
-     * Add a player to the list of temporarily blocked players.
-     * @param player Player to add.
+     * Remove a player's join block.
+     * @param playerID The player's unique id.
      */
-    public void addBlockedPlayer(Player player) {
-        blockedPlayers.add(player);
+    public void removeBlockedPlayer(UUID playerID) {
+        blockedPlayers.remove(playerID);
+        PartyChat.getExpiryHandler().cancel(ExpiryHandler.Type.JOIN_BLOCK, id, playerID);
     }
 
     /**
-     * Remove a player from the list of temporarily blocked players.
-     * @param player Player to remove.
+     * Get the unique ids of players who have pending summon requests from the party leader.
+     * @return Unmodifiable set of player ids.
      */
-    public void removeBlockedPlayer(Player player) {
-        blockedPlayers.remove(player);
+    public Set<UUID> getPendingSummons() {
+        return Collections.unmodifiableSet(pendingSummons.keySet());
     }
 
     /**
-     * Get a list of players who have pending summon requests from the party leader.
-     * @return List of players.
+     * Check if a player has a pending summon request that hasn't expired.
+     * @param playerID The player's unique id.
+     * @return true -> pending | false -> not pending
      */
-    public List<Player> getPendingSummons() {
-        return pendingSummons;
+    public boolean hasPendingSummons(UUID playerID) {
+        return isLive(pendingSummons.get(playerID));
     }
 
     /**
-     * Add a player to the list of players with pending summon requests.
-     * @param player Player to add.
+     * Add a pending summon request. It expires after the configured summon-expire-time.
+     * @param playerID The summoned player's unique id.
      */
-    public void addPendingSummons(Player player) {
-        pendingSummons.add(player);
+    public void addPendingSummons(UUID playerID) {
+        pendingSummons.put(playerID, expiryFrom(PartyChat.getDataHandler().getSettings().getSummonExpireTime()));
+        PartyChat.getPartyHandler().indexPending(playerID, id);
     }
 
     /**
-     * Remove a player from the list of players with pending summon requests.
-     * @param player Player to remove.
+     * Remove a pending summon request.
+     * @param playerID The summoned player's unique id.
      */
-    public void removePendingSummons(Player player) {
-        pendingSummons.remove(player);
+    public void removePendingSummons(UUID playerID) {
+        pendingSummons.remove(playerID);
+        PartyChat.getExpiryHandler().cancel(ExpiryHandler.Type.SUMMON, id, playerID);
+        unindexIfClear(playerID);
+    }
+
+    /**
+     * Remove a player's pending invitation, join request, and summon request. Called when the player logs out.
+     * Join blocks are kept.
+     * @param playerID The player's unique id.
+     */
+    public void clearPending(UUID playerID) {
+        removePendingInvitation(playerID);
+        removePendingJoinRequest(playerID);
+        removePendingSummons(playerID);
+    }
+
+    private void unindexIfClear(UUID playerID) {
+        if (!pendingJoinRequests.containsKey(playerID) && !pendingSummons.containsKey(playerID))
+            PartyChat.getPartyHandler().unindexPending(playerID, id);
+    }
+
+    /**
+     * Get the expiry time for a pending entry from a configured expire time.
+     * @param seconds The expire time in seconds, or -1 for no expiry.
+     * @return Expiry time in milliseconds, or -1 if it never expires.
+     */
+    private static long expiryFrom(int seconds) {
+        return seconds == -1 ? -1 : System.currentTimeMillis() + seconds * 1000L;
+    }
+
+    private static boolean isLive(Long expiry) {
+        return expiry != null && (expiry == -1 || System.currentTimeMillis() < expiry);
     }
 }
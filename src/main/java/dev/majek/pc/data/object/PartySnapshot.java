@@ -0,0 +1,125 @@
+package dev.majek.pc.data.object;
+
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * An immutable, consistent view of every party at one point in time. {@link dev.majek.pc.data.PartyHandler}
+ * publishes a new snapshot after each batch of changes, so readers on any thread can use it without locking
+ * and never see a change that is only half applied.
+ */
+public final class PartySnapshot {
+
+    /**
+     * The snapshot used before anything has been published.
+     */
+    public static final PartySnapshot EMPTY = new PartySnapshot(0, Collections.emptyList());
+
+    private final long epoch;
+    private final Map<UUID, PartyView> parties;
+    private final NavigableMap<String, PartyView> names;
+    private final List<PartyView> publicParties;
+    private final Map<UUID, PartyView> members;
+    private final int playersInParties;
+
+    /**
+     * Build a snapshot from a collection of parties.
+     * @param epoch The snapshot's epoch, incremented with each publish.
+     * @param parties The parties to copy.
+     */
+    public PartySnapshot(long epoch, Collection<Party> parties) {
+        this.epoch = epoch;
+        Map<UUID, PartyView> partyViews = new HashMap<>();
+        NavigableMap<String, PartyView> names = new TreeMap<>();
+        Map<UUID, PartyView> members = new HashMap<>();
+        for (Party party : parties) {
+            PartyView view = new PartyView(party);
+            partyViews.put(view.getId(), view);
+            names.put(view.getRawName().toLowerCase(Locale.ROOT), view);
+            view.getMemberIDs().forEach(member -> members.put(member, view));
+        }
+        this.parties = Collections.unmodifiableMap(partyViews);
+        this.names = Collections.unmodifiableNavigableMap(names);
+        List<PartyView> publicParties = new ArrayList<>();
+        for (PartyView view : names.values())
+            if (view.isPublic())
+                publicParties.add(view);
+        this.publicParties = Collections.unmodifiableList(publicParties);
+        this.members = Collections.unmodifiableMap(members);
+        this.playersInParties = members.size();
+    }
+
+    /**
+     * Get the snapshot's epoch. A higher epoch is a newer snapshot.
+     * @return Epoch.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Get every party in the snapshot keyed by party id.
+     * @return Unmodifiable map of parties.
+     */
+    public Map<UUID, PartyView> getParties() {
+        return parties;
+    }
+
+    /**
+     * Get a party by its id.
+     * @param partyID The party's unique id.
+     * @return The party, if it exists.
+     */
+    @Nullable
+    public PartyView getParty(UUID partyID) {
+        return parties.get(partyID);
+    }
+
+    /**
+     * Get the party a player is in.
+     * @param playerID The player's unique id.
+     * @return The player's party, if they're in one.
+     */
+    @Nullable
+    public PartyView getPartyOf(UUID playerID) {
+        return members.get(playerID);
+    }
+
+    /**
+     * Get the raw names of all public parties starting with a prefix, ignoring case.
+     * @param prefix The prefix to match.
+     * @return Sorted list of raw party names.
+     */
+    public List<String> getPublicPartyNames(String prefix) {
+        String folded = prefix.toLowerCase(Locale.ROOT);
+        List<String> matches = new ArrayList<>();
+        for (PartyView view : names.subMap(folded, true, folded + Character.MAX_VALUE, false).values())
+            if (view.isPublic())
+                matches.add(view.getRawName());
+        return matches;
+    }
+
+    /**
+     * Get every public party sorted by name, ignoring case.
+     * @return Unmodifiable list of public parties.
+     */
+    public List<PartyView> getPublicParties() {
+        return publicParties;
+    }
+
+    /**
+     * Get the number of active parties.
+     * @return Party count.
+     */
+    public int getPartyCount() {
+        return parties.size();
+    }
+
+    /**
+     * Get the number of players in a party.
+     * @return Player count.
+     */
+    public int getPlayersInParties() {
+        return playersInParties;
+    }
+}
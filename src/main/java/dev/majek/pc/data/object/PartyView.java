@@ -0,0 +1,126 @@
+package dev.majek.pc.data.object;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An immutable copy of a party's state taken when a {@link PartySnapshot} is published.
+ * Safe to read from any thread.
+ */
+public final class PartyView {
+
+    private final UUID id;
+    private final String name;
+    private final String rawName;
+    private final UUID leader;
+    private final String leaderName;
+    private final boolean isPublic;
+    private final boolean friendlyFire;
+    private final List<UUID> memberIDs;
+    private final int onlineCount;
+
+    /**
+     * Copy the current state of a party.
+     * @param party The party to copy.
+     */
+    public PartyView(Party party) {
+        this.id = party.getId();
+        this.name = party.getName();
+        this.rawName = party.getRawName();
+        this.leader = party.getLeader();
+        this.isPublic = party.isPublic();
+        this.friendlyFire = party.allowsFriendlyFire();
+        List<UUID> memberIDs = new ArrayList<>();
+        String leaderName = null;
+        for (User member : party.getMembers()) {
+            memberIDs.add(member.getPlayerID());
+            if (member.getPlayerID().equals(leader))
+                leaderName = member.getUsername();
+        }
+        this.memberIDs = Collections.unmodifiableList(memberIDs);
+        this.leaderName = leaderName;
+        this.onlineCount = party.getOnlineCount();
+    }
+
+    /**
+     * Get the party's unique id.
+     * @return Party id.
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * Get the party's name.
+     * @return Party name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the party's name without color codes.
+     * @return Raw party name.
+     */
+    public String getRawName() {
+        return rawName;
+    }
+
+    /**
+     * Get the unique id of the party leader.
+     * @return Party leader's unique id.
+     */
+    public UUID getLeader() {
+        return leader;
+    }
+
+    /**
+     * Get the party leader's username.
+     * @return Leader's username, null if unknown.
+     */
+    public String getLeaderName() {
+        return leaderName;
+    }
+
+    /**
+     * Get party status: public or private.
+     * @return true -> public | false -> private
+     */
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    /**
+     * Get whether or not the party allows friendly fire between members.
+     * @return true -> allows | false -> denies
+     */
+    public boolean allowsFriendlyFire() {
+        return friendlyFire;
+    }
+
+    /**
+     * Get the unique ids of the party's members.
+     * @return Unmodifiable list of member ids.
+     */
+    public List<UUID> getMemberIDs() {
+        return memberIDs;
+    }
+
+    /**
+     * Get the size of the party.
+     * @return Party size.
+     */
+    public int getSize() {
+        return memberIDs.size();
+    }
+
+    /**
+     * Get the number of party members who were online.
+     * @return Online member count.
+     */
+    public int getOnlineCount() {
+        return onlineCount;
+    }
+}
@@ -13,16 +13,18 @@ import java.util.UUID;
 
 public class User extends Mechanic {
 
-    private UUID      playerID;
-    private Player    player;
-    private String    username;
-    private boolean   isOnline;
-    private UUID      partyID;
-    private boolean   inParty;
-    private boolean   partyChatToggle;
-    private boolean   isStaff;
-    private boolean   spyToggle;
-    private boolean   noMove;
+    private          UUID      playerID;
+    private volatile Player    player;
+    private          String    username;
+    private volatile boolean   isOnline;
+    private volatile UUID      partyID;
+    private volatile boolean   inParty;
+    private volatile boolean   partyChatToggle;
+    private volatile boolean   isStaff;
+    private volatile boolean   spyToggle;
+    private volatile boolean   noMove;
+    private volatile long      lastSeen;
+    private volatile Party     party; // Resolved from partyID, see getParty()
 
     public User() {}
 
@@ -40,7 +42,7 @@ public class User extends Mechanic {
         this.partyChatToggle = false;
         this.isStaff = player.hasPermission("partychat.admin");
         this.spyToggle = player.hasPermission("partychat.admin") && PartyChat.getDataHandler()
-                .getConfigBoolean(PartyChat.getDataHandler().mainConfig, "auto-spy");
+                .getSettings().autoSpy();
         this.noMove = false;
         PartyChat.getDataHandler().addToUserMap(this);
     }
@@ -70,9 +72,10 @@ public class User extends Mechanic {
         }
         User user = PartyChat.getDataHandler().getUser(event.getPlayer());
         user.setPlayer(event.getPlayer());
+        user.setOnline(true);
         user.setStaff(event.getPlayer().hasPermission("partychat.admin"));
         user.setSpyToggle(event.getPlayer().hasPermission("partychat.admin") && PartyChat.getDataHandler()
-                .getConfigBoolean(PartyChat.getDataHandler().mainConfig, "auto-spy"));
+                .getSettings().autoSpy());
         user.setNoMove(false);
         PartyChat.getDataHandler().addToUserMap(user);
     }
@@ -82,7 +85,7 @@ public class User extends Mechanic {
         User user = PartyChat.getDataHandler().getUser(event.getPlayer());
         user.setPlayer(null);
         user.setOnline(false);
-        PartyChat.getDataHandler().addToUserMap(user);
+        user.setLastSeen(System.currentTimeMillis());
     }
 
     public UUID getPlayerID() {
@@ -114,6 +117,18 @@ public class User extends Mechanic {
         this.isOnline = online;
     }
 
+    /**
+     * Get the time the user last went offline.
+     * @return Epoch milliseconds, 0 if the user hasn't logged out since startup.
+     */
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(long lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+
     @Nullable
     public UUID getPartyID() {
         return partyID;
@@ -180,11 +195,21 @@ public class User extends Mechanic {
         return party.getLeader().equals(getPlayerID());
     }
 
+    /**
+     * Get the user's party. The party is looked up once and kept until the user's party id changes, so calling
+     * this on hot paths like damage events costs a field read rather than a map lookup.
+     * @return The user's party, or null if they aren't in one.
+     */
     @Nullable
     public Party getParty() {
-        if (getPartyID() == null || !isInParty())
+        UUID partyID = this.partyID;
+        if (partyID == null || !isInParty())
             return null;
-        else
-            return PartyChat.getPartyHandler().getParty(getPartyID());
+        Party party = this.party;
+        if (party == null || !party.getId().equals(partyID)) {
+            party = PartyChat.getPartyHandler().getParty(partyID);
+            this.party = party;
+        }
+        return party;
     }
 }
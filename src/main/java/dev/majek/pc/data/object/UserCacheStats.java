@@ -0,0 +1,77 @@
+package dev.majek.pc.data.object;
+
+/**
+ * A point in time view of the user cache, used for metrics and debugging.
+ */
+public final class UserCacheStats {
+
+    // Rough retained size of a cached user: object header, fields, uuid, and a short username
+    private static final int BYTES_PER_USER = 160;
+
+    private final int online;
+    private final int offlineMembers;
+    private final int idle;
+    private final long evicted;
+
+    public UserCacheStats(int online, int offlineMembers, int idle, long evicted) {
+        this.online = online;
+        this.offlineMembers = offlineMembers;
+        this.idle = idle;
+        this.evicted = evicted;
+    }
+
+    /**
+     * Get the number of cached users who are online. These are never evicted.
+     * @return Online user count.
+     */
+    public int getOnline() {
+        return online;
+    }
+
+    /**
+     * Get the number of cached users who are offline but still in a party. These are kept until they leave.
+     * @return Offline party member count.
+     */
+    public int getOfflineMembers() {
+        return offlineMembers;
+    }
+
+    /**
+     * Get the number of cached users who are offline and not in a party. These are evicted after the idle TTL.
+     * @return Idle user count.
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * Get the total number of users evicted since startup.
+     * @return Eviction count.
+     */
+    public long getEvicted() {
+        return evicted;
+    }
+
+    /**
+     * Get the total number of cached users.
+     * @return Cache size.
+     */
+    public int getSize() {
+        return online + offlineMembers + idle;
+    }
+
+    /**
+     * Get an estimate of the heap used by cached users.
+     * @return Estimated size in bytes.
+     */
+    public long getEstimatedBytes() {
+        return (long) getSize() * BYTES_PER_USER;
+    }
+
+    @Override
+    public String toString() {
+        return "User cache: " + getSize() + " users (" + online + " online, " + offlineMembers
+                + " offline in a party, " + idle + " idle), ~" + (getEstimatedBytes() / 1024) + " KB, "
+                + evicted + " evicted";
+    }
+}
@@ -1,6 +1,8 @@
 package dev.majek.pc.data.storage;
 
+import org.apache.commons.io.IOUtils;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
@@ -9,7 +11,15 @@ import org.yaml.snakeyaml.Yaml;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 /**
@@ -22,8 +32,13 @@ import java.util.stream.Collectors;
  */
 public class ConfigUpdater {
 
+    // Records the resource and file hashes from the last merge so unchanged files aren't rewritten
+    private static final String CHECKSUM_FILE = ".update-checksums";
+    private static Properties checksums;
+
     /**
-     * Update a yaml file from a resource inside your plugin jar
+     * Update a yaml file from a resource inside your plugin jar. This is skipped if neither the resource nor the
+     * file changed since the last update.
      * @param plugin You plugin
      * @param resourceName The yaml file name to update from, typically config.yml
      * @param toUpdate The yaml file to update
@@ -31,12 +46,30 @@ public class ConfigUpdater {
      * @throws IOException If an IOException occurs
      */
     public static void update(Plugin plugin, String resourceName, File toUpdate, List<String> ignoredSections) throws IOException {
-        BufferedReader newReader = new BufferedReader(new InputStreamReader(plugin.getResource(resourceName), StandardCharsets.UTF_8));
-        List<String> newLines = newReader.lines().collect(Collectors.toList());
-        newReader.close();
+        InputStream resource = plugin.getResource(resourceName);
+        if (resource == null)
+            return; // Nothing bundled to update from
+        byte[] resourceBytes;
+        try (InputStream stream = resource) {
+            resourceBytes = IOUtils.toByteArray(stream);
+        }
+        String resourceHash = hash(resourceBytes);
+        if (toUpdate.exists() && (resourceHash + ":" + hash(Files.readAllBytes(toUpdate.toPath())))
+                .equals(getChecksum(plugin, resourceName)))
+            return;
+
+        String newContents = new String(resourceBytes, StandardCharsets.UTF_8);
+        List<String> newLines = new BufferedReader(new StringReader(newContents)).lines().collect(Collectors.toList());
 
         FileConfiguration oldConfig = YamlConfiguration.loadConfiguration(toUpdate);
-        FileConfiguration newConfig = YamlConfiguration.loadConfiguration(new InputStreamReader(plugin.getResource(resourceName)));
+        YamlConfiguration newConfig = new YamlConfiguration();
+        try {
+            newConfig.loadFromString(newContents);
+        } catch (InvalidConfigurationException e) {
+            throw new IOException("Invalid bundled resource " + resourceName, e);
+        }
+        if (toUpdate.getParentFile() != null)
+            toUpdate.getParentFile().mkdirs();
         BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(toUpdate), StandardCharsets.UTF_8));
 
         List<String> ignoredSectionsArrayList = new ArrayList<>(ignoredSections);
@@ -46,6 +79,84 @@ public class ConfigUpdater {
         Yaml yaml = new Yaml();
         Map<String, String> comments = parseComments(newLines, ignoredSectionsArrayList, oldConfig, yaml);
         write(newConfig, oldConfig, comments, ignoredSectionsArrayList, writer, yaml);
+
+        putChecksum(plugin, resourceName, resourceHash + ":" + hash(Files.readAllBytes(toUpdate.toPath())));
+    }
+
+    /**
+     * Update several yaml files from resources inside your plugin jar at once, running the merges in parallel.
+     * Errors are logged and don't stop the other files from updating.
+     * @param plugin Your plugin
+     * @param files The files to update keyed by resource name
+     */
+    public static void updateAll(Plugin plugin, Map<String, File> files) {
+        if (files.isEmpty())
+            return;
+        int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, plugin.getName() + " Config Updater");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Map<String, Future<?>> futures = new LinkedHashMap<>();
+            files.forEach((resourceName, toUpdate) -> futures.put(resourceName, pool.submit(() -> {
+                update(plugin, resourceName, toUpdate, Collections.emptyList());
+                return null;
+            })));
+            for (Map.Entry<String, Future<?>> future : futures.entrySet()) {
+                try {
+                    future.getValue().get();
+                } catch (ExecutionException e) {
+                    plugin.getLogger().log(Level.SEVERE, "Unable to update " + future.getKey(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest)
+                builder.append(String.format("%02x", b));
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JVM ships with SHA-256
+        }
+    }
+
+    private static synchronized String getChecksum(Plugin plugin, String resourceName) {
+        return loadChecksums(plugin).getProperty(resourceName);
+    }
+
+    private static synchronized void putChecksum(Plugin plugin, String resourceName, String checksum) {
+        Properties properties = loadChecksums(plugin);
+        properties.setProperty(resourceName, checksum);
+        try (OutputStream stream = new FileOutputStream(new File(plugin.getDataFolder(), CHECKSUM_FILE))) {
+            properties.store(stream, "Used to skip config updates when nothing changed, safe to delete");
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Unable to save config checksums", e);
+        }
+    }
+
+    private static Properties loadChecksums(Plugin plugin) {
+        if (checksums == null) {
+            checksums = new Properties();
+            File file = new File(plugin.getDataFolder(), CHECKSUM_FILE);
+            if (file.exists()) {
+                try (InputStream stream = new FileInputStream(file)) {
+                    checksums.load(stream);
+                } catch (IOException e) {
+                    plugin.getLogger().log(Level.WARNING, "Unable to read config checksums", e);
+                }
+            }
+        }
+        return checksums;
     }
 
     //Write method doing the work.
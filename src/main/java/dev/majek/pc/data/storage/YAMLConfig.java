@@ -39,14 +39,32 @@ public class YAMLConfig {
     }
 
     public void reloadConfig() {
+        this.dataConfig = parseConfig();
+    }
+
+    /**
+     * Parse the file from disk without replacing the loaded config. This doesn't touch any server state,
+     * so it's safe to call off the main thread.
+     * @return The parsed config, with the bundled resource as defaults.
+     */
+    public FileConfiguration parseConfig() {
         if (this.configFile == null)
             this.configFile = new File(this.plugin.getDataFolder(), this.fileName);
-        this.dataConfig = YamlConfiguration.loadConfiguration(this.configFile);
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(this.configFile);
         InputStream defaultStream = this.plugin.getResource(this.fileName);
         if (defaultStream != null) {
             YamlConfiguration defaultConfig = YamlConfiguration.loadConfiguration(new InputStreamReader(defaultStream));
-            this.dataConfig.setDefaults(defaultConfig);
+            config.setDefaults(defaultConfig);
         }
+        return config;
+    }
+
+    /**
+     * Replace the loaded config with one that was already parsed.
+     * @param config The new config.
+     */
+    public void setConfig(FileConfiguration config) {
+        this.dataConfig = config;
     }
 
     /*
@@ -0,0 +1,146 @@
+package dev.majek.pc.data.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Changes single scalar values in a yaml file in place. Only the value on the matching line is rewritten, so
+ * comments, ordering, and formatting everywhere else are kept exactly as they were. The file is replaced
+ * atomically so a crash mid-write can never leave it half written.
+ */
+public class YAMLPatcher {
+
+    // One writer thread, so patches to the same file are applied in order
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PartyChat YAML Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Set a value in a yaml file on a background thread.
+     * @param file The file to patch.
+     * @param path The dot separated path of the key, e.g. party-subcommands.add.cooldown
+     * @param value The new value. Strings are quoted, everything else is written with toString.
+     * @return Future completing with whether or not the key was found.
+     */
+    public static CompletableFuture<Boolean> patchAsync(Path file, String path, Object value) {
+        // Once the plugin is shutting down patch on the calling thread instead of dropping the change
+        Executor executor = writer.isShutdown() ? Runnable::run : writer;
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return patch(file, path, value);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Stop the writer thread, waiting for queued patches to finish. Patches made afterwards run on the calling
+     * thread.
+     * @return true -> every queued patch finished | false -> timed out waiting
+     */
+    public static boolean shutdown() {
+        writer.shutdown();
+        try {
+            return writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Set a value in a yaml file.
+     * @param file The file to patch.
+     * @param path The dot separated path of the key, e.g. party-subcommands.add.cooldown
+     * @param value The new value. Strings are quoted, everything else is written with toString.
+     * @return true -> patched | false -> the key wasn't found and the file is unchanged
+     * @throws IOException If the file can't be read or written.
+     */
+    public static boolean patch(Path file, String path, Object value) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        int index = find(lines, path.split("\\."));
+        if (index == -1)
+            return false;
+
+        String line = lines.get(index);
+        int colon = line.indexOf(':');
+        String rest = line.substring(colon + 1).trim();
+        String comment = "";
+        if (!rest.startsWith("\"") && !rest.startsWith("'")) {
+            int hash = rest.indexOf(" #");
+            if (hash != -1)
+                comment = " " + rest.substring(hash + 1);
+        }
+        lines.set(index, line.substring(0, colon + 1) + " " + format(value) + comment);
+
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    /**
+     * Find the line holding a key by walking the file's sections by indentation.
+     * @param lines The file's lines.
+     * @param keys The path split into keys.
+     * @return The line index, or -1 if the key isn't in the file.
+     */
+    private static int find(List<String> lines, String[] keys) {
+        int depth = 0;
+        int parentIndent = -1;
+        int childIndent = -1;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#") || trimmed.startsWith("-"))
+                continue;
+            int indent = line.length() - line.replaceAll("^\\s+", "").length();
+            if (indent <= parentIndent)
+                return -1; // Left the section without finding the key
+            if (childIndent == -1)
+                childIndent = indent;
+            if (indent != childIndent)
+                continue; // Deeper in a sibling section
+            int colon = trimmed.indexOf(':');
+            if (colon == -1)
+                continue;
+            String key = trimmed.substring(0, colon).replaceAll("^[\"']|[\"']$", "");
+            if (!key.equals(keys[depth]))
+                continue;
+            if (depth == keys.length - 1)
+                return i;
+            depth++;
+            parentIndent = indent;
+            childIndent = -1;
+        }
+        return -1;
+    }
+
+    private static String format(Object value) {
+        if (value instanceof String)
+            return "\"" + ((String) value).replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+        return String.valueOf(value);
+    }
+}
@@ -1,20 +1,20 @@
 package dev.majek.pc.gui;
 
 import dev.majek.pc.PartyChat;
+import dev.majek.pc.data.object.Language;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.util.Pair;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
-import org.bukkit.event.inventory.InventoryEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 public abstract class Gui {
 
@@ -25,6 +25,9 @@ public abstract class Gui {
     protected Inventory inv;
     protected Player user;
     private boolean ignoreClose;
+    // What was last drawn in each slot, so redraws can skip slots that haven't changed
+    private Object[] drawn;
+    private boolean[] touched;
 
     protected Gui(String guiName, String displayName, int size) {
         this.guiName = guiName;
@@ -32,16 +35,14 @@ public abstract class Gui {
         this.inv = Bukkit.createInventory(null, size, displayName);
         this.user = null;
         this.ignoreClose = false;
+        this.drawn = new Object[size];
+        this.touched = new boolean[size];
     }
 
     public Inventory getInventory() {
         return inv;
     }
 
-    public boolean matches(InventoryEvent event) {
-        return inv.equals(event.getInventory());
-    }
-
     protected abstract void populateInventory(Player p);
 
     public void openGui(Player player) {
@@ -52,6 +53,8 @@ public abstract class Gui {
     }
 
     protected void setItem(int slot, Material material, String name, String... lore) {
+        touched[slot] = true;
+        drawn[slot] = null;
         ItemStack stack = new ItemStack(material);
         ItemMeta meta = stack.getItemMeta();
         meta.setDisplayName(ChatColor.RESET + name + ChatColor.RESET);
@@ -84,7 +87,32 @@ public abstract class Gui {
         addActionItem(slot, item, NO_ACTION);
     }
 
+    /**
+     * Draw an item from a template. Nothing is rebuilt if the slot already shows the same template with the
+     * same replacements.
+     * @param slot The slot.
+     * @param template The item template.
+     * @param replacements Pairs of placeholders and their replacements.
+     */
+    protected void setItem(int slot, ItemTemplate template, String... replacements) {
+        touched[slot] = true;
+        List<Object> key = new ArrayList<>(replacements.length + 1);
+        key.add(template);
+        Collections.addAll(key, replacements);
+        if (key.equals(drawn[slot]))
+            return;
+        inv.setItem(slot, template.build(replacements));
+        drawn[slot] = key;
+    }
+
+    protected void addActionItem(int slot, ItemTemplate template, Runnable action, String... replacements) {
+        setItem(slot, template, replacements);
+        clickActions.put(slot, new Pair<>(action == null ? NO_ACTION : action, false));
+    }
+
     protected void addActionItem(int slot, ItemStack stack, Runnable action, boolean rightClickOnly) {
+        touched[slot] = true;
+        drawn[slot] = null;
         inv.setItem(slot, stack);
         clickActions.put(slot, new Pair<>(action == null ? NO_ACTION : action, rightClickOnly));
     }
@@ -96,17 +124,39 @@ public abstract class Gui {
     protected void newInventory(int size, String displayName) {
         ignoreClose = true;
         user.closeInventory();
+        // Active GUIs are keyed by inventory, so re-register under the new one
+        PartyChat.getGuiHandler().removeActiveGui(this);
         inv = Bukkit.createInventory(null, size, displayName);
+        drawn = new Object[size];
+        touched = new boolean[size];
+        PartyChat.getGuiHandler().registerActiveGui(this);
         user.openInventory(inv);
         refreshInventory();
     }
 
     protected void refreshInventory() {
         inv.clear();
+        Arrays.fill(drawn, null);
         clickActions.clear();
         populateInventory(user);
     }
 
+    /**
+     * Populate the inventory again without clearing it first. Slots drawn from templates are only updated if
+     * they changed, and slots that weren't drawn this time are emptied.
+     */
+    protected void redrawInventory() {
+        Arrays.fill(touched, false);
+        clickActions.clear();
+        populateInventory(user);
+        for (int slot = 0; slot < touched.length; slot++) {
+            if (!touched[slot] && inv.getItem(slot) != null) {
+                inv.setItem(slot, null);
+                drawn[slot] = null;
+            }
+        }
+    }
+
     public void onItemClick(InventoryClickEvent event) {
         Pair<Runnable, Boolean> action = clickActions.get(event.getRawSlot());
         if(action != null && (!action.getSecond() || event.isRightClick())) {
@@ -115,6 +165,20 @@ public abstract class Gui {
         }
     }
 
+    /**
+     * Stop items from being dragged into the GUI. Anything left in a slot the GUI doesn't draw would be
+     * cleared on the next redraw.
+     * @param event The drag event.
+     */
+    public void onItemDrag(InventoryDragEvent event) {
+        for (int slot : event.getRawSlots()) {
+            if (slot < inv.getSize()) {
+                event.setCancelled(true);
+                return;
+            }
+        }
+    }
+
     public void onInventoryClosed() {
         if(ignoreClose) {
             ignoreClose = false;
@@ -130,8 +194,17 @@ public abstract class Gui {
         return stack == null ? null : stack.clone();
     }
 
-    public String getConfigString(String path) {
-        return PartyChat.getDataHandler().getConfigString(PartyChat.getDataHandler().messages, path);
+    public String getMessage(Message message) {
+        return getLanguage().getMessage(message).getRaw();
+    }
+
+    /**
+     * Get the language of the player viewing the GUI.
+     * @return Language.
+     */
+    protected Language getLanguage() {
+        return user == null ? PartyChat.getLanguageHandler().getLanguage()
+                : PartyChat.getLanguageHandler().getLanguage(user);
     }
 
 }
@@ -4,36 +4,58 @@ import dev.majek.pc.mechanic.Mechanic;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.inventory.Inventory;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class handles registering active GUIs and managing inventory events.
+ *
+ * Active GUIs are keyed by their inventory, so an inventory event is routed with one map lookup and events for
+ * inventories that aren't ours return right away.
  */
 public class GuiHandler extends Mechanic {
 
-    private final List<Gui> activeGuis;
+    private final Map<Inventory, Gui> activeGuis;
 
     public GuiHandler() {
-        this.activeGuis = new CopyOnWriteArrayList<>();
+        this.activeGuis = new ConcurrentHashMap<>();
     }
 
     public void registerActiveGui(Gui gui) {
-        activeGuis.add(gui);
+        activeGuis.put(gui.getInventory(), gui);
     }
 
     public void removeActiveGui(Gui gui) {
-        activeGuis.remove(gui);
+        activeGuis.remove(gui.getInventory(), gui);
     }
 
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
-        activeGuis.stream().filter(gui -> gui.matches(event)).forEach(gui -> gui.onItemClick(event));
+        if (activeGuis.isEmpty())
+            return;
+        Gui gui = activeGuis.get(event.getInventory());
+        if (gui != null)
+            gui.onItemClick(event);
+    }
+
+    @EventHandler
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (activeGuis.isEmpty())
+            return;
+        Gui gui = activeGuis.get(event.getInventory());
+        if (gui != null)
+            gui.onItemDrag(event);
     }
 
     @EventHandler
     public void onInventoryClose(InventoryCloseEvent event) {
-        activeGuis.stream().filter(gui -> gui.matches(event)).forEach(Gui::onInventoryClosed);
+        if (activeGuis.isEmpty())
+            return;
+        Gui gui = activeGuis.get(event.getInventory());
+        if (gui != null)
+            gui.onInventoryClosed();
     }
 }
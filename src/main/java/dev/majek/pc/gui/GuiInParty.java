@@ -1,31 +1,77 @@
 package dev.majek.pc.gui;
 
 import dev.majek.pc.PartyChat;
+import dev.majek.pc.data.object.Language;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
+import dev.majek.pc.util.Chat;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
-import static dev.majek.pc.command.PartyCommand.sendMessage;
+import java.util.Collections;
+import java.util.List;
 
-public class GuiInParty extends Gui {
+/**
+ * Party management for players in a party. Lists the party's members, and has buttons to change the party's
+ * visibility and friendly fire (leader only), browse public parties, and leave.
+ */
+public class GuiInParty extends PagedGui<User> {
 
-    protected GuiInParty() {
-        super("inParty", "Party Chat", 9);
+    private static final int VISIBILITY_SLOT = 46, FRIENDLY_FIRE_SLOT = 47, BROWSE_SLOT = 51, LEAVE_SLOT = 52;
+
+    private Party party;
+
+    public GuiInParty(Player player, Party party) {
+        super("inParty", Chat.applyColorCodes(PartyChat.getLanguageHandler().getLanguage(player)
+                .getMessage(Message.GUI_PARTY_TITLE).render("%partyName%", party.getName())));
     }
 
     @Override
     protected void populateInventory(Player player) {
-        User user = PartyChat.getDataHandler().getUser(player);
-        Party party = user.getParty();
-
-        // This should never happen, but I want to know if it does
-        if (party == null) {
-            PartyChat.error("Error: PC-GUI_IN_1 | The plugin is fine, but please report this error " +
-                    "code here: https://discord.gg/CGgvDUz");
-            sendMessage(player, "error"); return;
+        // They left or were removed while the GUI was open
+        if (PartyChat.getDataHandler().getUser(player).getParty() == null) {
+            Bukkit.getScheduler().runTask(PartyChat.getCore(), player::closeInventory);
+            return;
         }
 
+        super.populateInventory(player);
+    }
+
+    @Override
+    protected List<User> getEntries() {
+        party = PartyChat.getDataHandler().getUser(user).getParty();
+        return party == null ? Collections.emptyList() : party.getMembers();
+    }
 
+    @Override
+    protected void drawEntry(int slot, User member, GuiItems items) {
+        Language language = getLanguage();
+        boolean leader = party.getLeader().equals(member.getPlayerID());
+        setItem(slot, items.member, "%player%", member.getUsername(),
+                "%role%", language.getMessage(leader ? Message.GUI_LEADER : Message.GUI_MEMBER).getRaw(),
+                "%status%", language.getMessage(member.isOnline() ? Message.GUI_ONLINE : Message.GUI_OFFLINE).getRaw());
+    }
 
+    @Override
+    protected void drawControls(GuiItems items) {
+        if (party == null)
+            return;
+        Language language = getLanguage();
+        if (party.getLeader().equals(user.getUniqueId()) || user.hasPermission("partychat.bypass")) {
+            boolean isPublic = party.isPublic();
+            addActionItem(VISIBILITY_SLOT, items.visibility,
+                    () -> runCommand("party toggle " + (isPublic ? "private" : "public"), false),
+                    "%status%", language.getMessage(isPublic ? Message.GUI_PUBLIC : Message.GUI_PRIVATE).getRaw());
+            boolean friendlyFire = party.allowsFriendlyFire();
+            addActionItem(FRIENDLY_FIRE_SLOT, items.friendlyFire,
+                    () -> runCommand("party toggle friendly-fire " + (friendlyFire ? "deny" : "allow"), false),
+                    "%status%", language.getMessage(friendlyFire ? Message.GUI_ENABLED : Message.GUI_DISABLED).getRaw());
+        }
+        addActionItem(BROWSE_SLOT, items.browse, () -> {
+            Player player = user;
+            Bukkit.getScheduler().runTask(PartyChat.getCore(), () -> new GuiPartyBrowser(player).openGui(player));
+        });
+        addActionItem(LEAVE_SLOT, items.leave, () -> runCommand("party leave", true));
     }
 }
@@ -0,0 +1,59 @@
+package dev.majek.pc.gui;
+
+import dev.majek.pc.data.object.Language;
+import dev.majek.pc.data.object.Message;
+import org.bukkit.Material;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The item templates used by the party GUIs in one language. They're built the first time a GUI is opened in
+ * that language and rebuilt only after the language's messages change, e.g. when the file is edited.
+ */
+public class GuiItems {
+
+    private static final Map<Language, GuiItems> cache = new ConcurrentHashMap<>();
+
+    private final int version;
+    public final ItemTemplate party;
+    public final ItemTemplate member;
+    public final ItemTemplate previousPage;
+    public final ItemTemplate nextPage;
+    public final ItemTemplate page;
+    public final ItemTemplate visibility;
+    public final ItemTemplate friendlyFire;
+    public final ItemTemplate browse;
+    public final ItemTemplate leave;
+
+    private GuiItems(Language language) {
+        this.party = new ItemTemplate(Material.BOOK, language.getMessage(Message.GUI_PARTY_ITEM),
+                language.getMessageList(Message.GUI_PARTY_ITEM_LORE));
+        this.member = new ItemTemplate(Material.PLAYER_HEAD, language.getMessage(Message.GUI_MEMBER_ITEM),
+                language.getMessageList(Message.GUI_MEMBER_ITEM_LORE));
+        this.previousPage = new ItemTemplate(Material.ARROW, language.getMessage(Message.GUI_PREVIOUS_PAGE));
+        this.nextPage = new ItemTemplate(Material.ARROW, language.getMessage(Message.GUI_NEXT_PAGE));
+        this.page = new ItemTemplate(Material.PAPER, language.getMessage(Message.GUI_PAGE));
+        this.visibility = new ItemTemplate(Material.ENDER_EYE, language.getMessage(Message.GUI_VISIBILITY),
+                language.getMessageList(Message.GUI_CHANGE_LORE));
+        this.friendlyFire = new ItemTemplate(Material.IRON_SWORD, language.getMessage(Message.GUI_FRIENDLY_FIRE),
+                language.getMessageList(Message.GUI_CHANGE_LORE));
+        this.browse = new ItemTemplate(Material.COMPASS, language.getMessage(Message.GUI_BROWSE));
+        this.leave = new ItemTemplate(Material.OAK_DOOR, language.getMessage(Message.GUI_LEAVE));
+        this.version = language.getVersion(); // After the messages above, which may have loaded the language
+    }
+
+    /**
+     * Get the item templates for a language, rebuilding them if the language changed since they were built.
+     * @param language The language.
+     * @return Item templates.
+     */
+    public static GuiItems of(Language language) {
+        GuiItems items = cache.get(language);
+        if (items == null || items.version != language.getVersion()) {
+            items = new GuiItems(language);
+            cache.put(language, items);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,34 @@
+package dev.majek.pc.gui;
+
+import dev.majek.pc.PartyChat;
+import dev.majek.pc.data.object.Message;
+import dev.majek.pc.data.object.PartyView;
+import dev.majek.pc.util.Chat;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+
+/**
+ * Lists every public party, sorted by name. Clicking a party sends a request to join it.
+ */
+public class GuiPartyBrowser extends PagedGui<PartyView> {
+
+    public GuiPartyBrowser(Player player) {
+        super("partyBrowser", Chat.applyColorCodes(PartyChat.getLanguageHandler().getLanguage(player)
+                .getMessage(Message.GUI_BROWSER_TITLE).getRaw()));
+    }
+
+    @Override
+    protected List<PartyView> getEntries() {
+        return PartyChat.getPartyHandler().getSnapshot().getPublicParties();
+    }
+
+    @Override
+    protected void drawEntry(int slot, PartyView party, GuiItems items) {
+        addActionItem(slot, items.party, () -> runCommand("party join " + party.getRawName(), true),
+                "%partyName%", party.getName(),
+                "%leader%", party.getLeaderName() == null ? "?" : party.getLeaderName(),
+                "%size%", String.valueOf(party.getSize()),
+                "%online%", String.valueOf(party.getOnlineCount()));
+    }
+}
@@ -0,0 +1,65 @@
+package dev.majek.pc.gui;
+
+import dev.majek.pc.data.object.MessageTemplate;
+import dev.majek.pc.util.Chat;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A GUI item built once from the language file. Items without placeholders are reused as they are, items with
+ * placeholders copy the pre-built item and only fill in their text when they're drawn.
+ */
+public class ItemTemplate {
+
+    private final ItemStack base;
+    private final MessageTemplate name;
+    private final MessageTemplate[] lore;
+    private final boolean hasPlaceholders;
+
+    /**
+     * Build a template.
+     * @param material The item's material.
+     * @param name The item's display name.
+     * @param lore The item's lore, one template per line.
+     */
+    public ItemTemplate(Material material, MessageTemplate name, MessageTemplate... lore) {
+        this.name = name;
+        this.lore = lore;
+        boolean hasPlaceholders = name.hasPlaceholders();
+        for (MessageTemplate line : lore)
+            hasPlaceholders |= line.hasPlaceholders();
+        this.hasPlaceholders = hasPlaceholders;
+        this.base = new ItemStack(material);
+        apply(base);
+    }
+
+    /**
+     * Get the item with its placeholders filled in.
+     * @param replacements Pairs of placeholders and their replacements.
+     * @return The item. Items without placeholders are shared, so don't modify the result.
+     */
+    public ItemStack build(String... replacements) {
+        if (!hasPlaceholders)
+            return base;
+        ItemStack stack = base.clone();
+        apply(stack, replacements);
+        return stack;
+    }
+
+    private void apply(ItemStack stack, String... replacements) {
+        ItemMeta meta = stack.getItemMeta();
+        if (meta == null)
+            return;
+        meta.setDisplayName(ChatColor.RESET + Chat.applyColorCodes(name.render(replacements)) + ChatColor.RESET);
+        List<String> lines = new ArrayList<>(lore.length);
+        for (MessageTemplate line : lore)
+            lines.add(Chat.applyColorCodes(line.render(replacements)));
+        meta.setLore(lines);
+        stack.setItemMeta(meta);
+    }
+}
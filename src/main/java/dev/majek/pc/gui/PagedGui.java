@@ -0,0 +1,111 @@
+package dev.majek.pc.gui;
+
+import dev.majek.pc.PartyChat;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.List;
+
+/**
+ * A double chest GUI showing a list one page at a time, with page controls on the bottom row. Only the entries
+ * on the current page are drawn. While open it checks the party snapshot once a second and redraws if anything
+ * changed, which only touches the slots whose items are different.
+ * @param <T> The type of entry listed.
+ */
+public abstract class PagedGui<T> extends Gui {
+
+    protected static final int PAGE_SIZE = 45;
+    private static final int PREVIOUS_SLOT = 45, PAGE_SLOT = 49, NEXT_SLOT = 53;
+
+    protected int page;
+    private long drawnEpoch;
+    private BukkitTask refreshTask;
+
+    protected PagedGui(String guiName, String displayName) {
+        super(guiName, displayName, 54);
+        this.page = 0;
+    }
+
+    /**
+     * Get everything listed in the GUI. This is called on every draw, so it should be cheap.
+     * @return Entries.
+     */
+    protected abstract List<T> getEntries();
+
+    /**
+     * Draw one entry.
+     * @param slot The slot to draw in.
+     * @param entry The entry.
+     * @param items The item templates for the viewer's language.
+     */
+    protected abstract void drawEntry(int slot, T entry, GuiItems items);
+
+    /**
+     * Draw anything on the bottom row besides the page controls.
+     * @param items The item templates for the viewer's language.
+     */
+    protected void drawControls(GuiItems items) { }
+
+    @Override
+    protected void populateInventory(Player player) {
+        drawnEpoch = PartyChat.getPartyHandler().getSnapshot().getEpoch();
+        GuiItems items = GuiItems.of(getLanguage());
+        List<T> entries = getEntries();
+        int pages = Math.max(1, (entries.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        page = Math.max(0, Math.min(page, pages - 1));
+        int first = page * PAGE_SIZE;
+        for (int slot = 0; slot < PAGE_SIZE && first + slot < entries.size(); slot++)
+            drawEntry(slot, entries.get(first + slot), items);
+        if (page > 0)
+            addActionItem(PREVIOUS_SLOT, items.previousPage, () -> turnPage(-1));
+        addActionItem(PAGE_SLOT, items.page, NO_ACTION, "%page%", String.valueOf(page + 1),
+                "%pages%", String.valueOf(pages));
+        if (page < pages - 1)
+            addActionItem(NEXT_SLOT, items.nextPage, () -> turnPage(1));
+        drawControls(items);
+    }
+
+    private void turnPage(int delta) {
+        page += delta;
+        redrawInventory();
+    }
+
+    @Override
+    public void openGui(Player player) {
+        super.openGui(player);
+        refreshTask = Bukkit.getScheduler().runTaskTimer(PartyChat.getCore(), () -> {
+            if (PartyChat.getPartyHandler().getSnapshot().getEpoch() != drawnEpoch)
+                redrawInventory();
+        }, 20L, 20L);
+    }
+
+    @Override
+    protected void onClose() {
+        if (refreshTask != null)
+            refreshTask.cancel();
+    }
+
+    @Override
+    public void onItemClick(InventoryClickEvent event) {
+        super.onItemClick(event);
+        event.setCancelled(true); // Nothing can be taken out of or put into the GUI
+    }
+
+    /**
+     * Run a party command as the viewer on the next tick, since commands shouldn't run inside a click event.
+     * @param command The command without the slash, e.g. party leave
+     * @param close Whether or not to close the GUI first.
+     */
+    protected void runCommand(String command, boolean close) {
+        Player player = user;
+        Bukkit.getScheduler().runTask(PartyChat.getCore(), () -> {
+            if (close)
+                player.closeInventory();
+            player.performCommand(command);
+            if (!close)
+                redrawInventory();
+        });
+    }
+}
@@ -9,7 +9,7 @@ import java.util.logging.Level;
 
 public class LiteBans {
 
-    public static boolean muted;
+    public static volatile boolean muted;
 
     /**
      * Check if the player is muted by LiteBans
@@ -33,7 +33,7 @@ public class LiteBans {
         }
     }
 
-    public static boolean banned;
+    public static volatile boolean banned;
 
     /**
      * Check if the player is banned by LiteBans
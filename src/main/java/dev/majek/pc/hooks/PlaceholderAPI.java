@@ -1,6 +1,7 @@
 package dev.majek.pc.hooks;
 
 import dev.majek.pc.PartyChat;
+import dev.majek.pc.data.object.PartyView;
 import me.clip.placeholderapi.PlaceholderAPIPlugin;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.OfflinePlayer;
@@ -50,22 +51,52 @@ public class PlaceholderAPI extends PlaceholderExpansion {
     @Override
     public String onRequest(OfflinePlayer player, @NotNull String identifier) {
 
-        // %partychat_active_parties% - get number of active parties
+        // %partychat_activeParties% - get number of active parties
         if (identifier.equalsIgnoreCase("activeParties"))
-            return Integer.toString((int) PartyChat.getPartyHandler().getPartyMap().values().stream().distinct().count());
+            return Integer.toString(PartyChat.getPartyHandler().getPartyCount());
 
-        // %partychat_players_in_parties% - get the number of players in a party
+        // %partychat_playersInParty% - get the number of players in a party
         if (identifier.equalsIgnoreCase("playersInParty"))
-            return Integer.toString(PartyChat.getPartyHandler().getPartyMap().size());
+            return Integer.toString(PartyChat.getPartyHandler().getPlayersInParties());
 
-        // %partychat_persistent_parties% - whether or not persistent parties is enabled
+        // %partychat_persistentParties% - whether or not persistent parties is enabled
         if (identifier.equalsIgnoreCase("persistentParties"))
-            return plugin.getConfig().getBoolean("persistent-parties") ? yes : no;
+            return PartyChat.getDataHandler().getSettings().persistentParties() ? yes : no;
 
-        // %partychat_player_partyName% - get the name of the party the player is in
+        if (player == null)
+            return null;
+        PartyView party = PartyChat.getPartyHandler().getSnapshot().getPartyOf(player.getUniqueId());
+
+        // %partychat_playerInParty% - whether or not the player is in a party
+        if (identifier.equalsIgnoreCase("playerInParty"))
+            return party != null ? yes : no;
+
+        // %partychat_playerPartyName% - get the name of the party the player is in
         if (identifier.equalsIgnoreCase("playerPartyName"))
-            return PartyChat.getDataHandler().getUser(player.getUniqueId()).getParty().getName() == null ?
-                    "Not in a party" : PartyChat.getDataHandler().getUser(player.getUniqueId()).getParty().getRawName();
+            return party == null ? "Not in a party" : party.getRawName();
+
+        // %partychat_playerPartySize% - get the number of members in the player's party
+        if (identifier.equalsIgnoreCase("playerPartySize"))
+            return party == null ? "0" : Integer.toString(party.getSize());
+
+        // %partychat_playerPartyOnline% - get the number of online members in the player's party
+        if (identifier.equalsIgnoreCase("playerPartyOnline"))
+            return party == null ? "0" : Integer.toString(party.getOnlineCount());
+
+        // %partychat_playerPartyLeader% - get the username of the player's party leader
+        if (identifier.equalsIgnoreCase("playerPartyLeader"))
+            return party == null || party.getLeaderName() == null ? "" : party.getLeaderName();
+
+        // %partychat_playerPartyRole% - get the player's role in their party
+        if (identifier.equalsIgnoreCase("playerPartyRole")) {
+            if (party == null)
+                return "None";
+            return party.getLeader().equals(player.getUniqueId()) ? "Leader" : "Member";
+        }
+
+        // %partychat_playerPartyPublic% - whether or not the player's party is public
+        if (identifier.equalsIgnoreCase("playerPartyPublic"))
+            return party != null && party.isPublic() ? yes : no;
 
         return null;
     }
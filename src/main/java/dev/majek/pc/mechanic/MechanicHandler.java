@@ -34,6 +34,10 @@ public class MechanicHandler implements Listener {
         registerMechanic(PartyChat.getLanguageHandler());
         registerMechanic(PartyChat.getCommandHandler());
         registerMechanic(PartyChat.getPartyHandler());
+        registerMechanic(PartyChat.getCooldownHandler());
+        registerMechanic(PartyChat.getExpiryHandler());
+        registerMechanic(PartyChat.getTeleportHandler());
+        registerMechanic(PartyChat.getConfigWatcher());
 
         // Feature mechanics
         registerMechanic(new User());
@@ -1,62 +1,139 @@
 package dev.majek.pc.mechanic;
 
 import dev.majek.pc.PartyChat;
+import dev.majek.pc.data.object.Message;
 import dev.majek.pc.data.object.Party;
 import dev.majek.pc.data.object.User;
+import org.bukkit.entity.AreaEffectCloud;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Projectile;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.entity.AreaEffectCloudApplyEvent;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.PotionSplashEvent;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+import org.bukkit.projectiles.ProjectileSource;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 import static dev.majek.pc.command.PartyCommand.sendMessage;
 
+/**
+ * Stops party members from hurting each other when their party has friendly fire disabled.
+ *
+ * This runs on every damage event on the server, so it exits as early as possible. Only real players have a
+ * {@link User}, so a player without one is an NPC (e.g. from Citizens) and is ignored without checking metadata.
+ *
+ * Harmful splash potions and lingering clouds are covered too. The thrower's party is resolved once per event and
+ * each affected player is checked against the party's member index, so a big fight costs one hash lookup per
+ * affected player. Beneficial potions still reach party members.
+ */
 public class PvPEvent extends Mechanic {
 
+    private static final Set<PotionEffectType> HARMFUL_EFFECTS = new HashSet<>(Arrays.asList(
+            PotionEffectType.HARM, PotionEffectType.POISON, PotionEffectType.WITHER, PotionEffectType.WEAKNESS,
+            PotionEffectType.SLOW, PotionEffectType.SLOW_DIGGING, PotionEffectType.BLINDNESS,
+            PotionEffectType.CONFUSION, PotionEffectType.HUNGER, PotionEffectType.LEVITATION,
+            PotionEffectType.UNLUCK, PotionEffectType.GLOWING
+    ));
+
     @EventHandler(ignoreCancelled = true)
     public void onPlayerPvP(EntityDamageByEntityEvent event) {
         // Ignore if it's not a player being damaged
         if (!(event.getEntity() instanceof Player))
             return;
 
-        // Handle damage from Citizens NPCs
-        if (event.getDamager().hasMetadata("NPC") || event.getEntity().hasMetadata("NPC"))
-            return;
-
         // Handle damage from projectiles
-        Player damagerPlayer = event.getDamager() instanceof Player ? (Player) event.getDamager() : null;
-        if (damagerPlayer == null && event.getDamager() instanceof Projectile) {
-            Projectile p = (Projectile) event.getDamager();
-            damagerPlayer = p.getShooter() instanceof Player ? (Player) p.getShooter() : null;
-        }
+        Entity damagerEntity = event.getDamager();
+        if (damagerEntity instanceof Projectile && ((Projectile) damagerEntity).getShooter() instanceof Entity)
+            damagerEntity = (Entity) ((Projectile) damagerEntity).getShooter();
 
-        // Ignore if the player is damaging themselves or an entity shot a projectile at them
-        if (damagerPlayer == null || damagerPlayer == event.getEntity() || damagerPlayer.hasMetadata("NPC"))
+        // Ignore if an entity hurt them or the player is damaging themselves
+        if (!(damagerEntity instanceof Player) || damagerEntity == event.getEntity())
             return;
+        Player damagerPlayer = (Player) damagerEntity;
         Player attackedPlayer = (Player) event.getEntity();
 
-        User damager = PartyChat.getDataHandler().getUser(damagerPlayer);
+        // Attacked player first, most players hit by another player aren't in a party
         User attacked = PartyChat.getDataHandler().getUser(attackedPlayer);
+        Party party = attacked == null ? null : attacked.getParty();
+        if (party == null || party.allowsFriendlyFire())
+            return;
+        User damager = PartyChat.getDataHandler().getUser(damagerPlayer);
+        if (damager == null || damager.getParty() != party)
+            return;
 
-        if (damager.isInParty() && attacked.isInParty() && damager.getParty() == attacked.getParty()) {
-            Party party = damager.getParty();
-
-            // This should never happen, but I want to know if it does
-            if (party == null) {
-                PartyChat.error("Error: PC-PVP_1 | The plugin is fine, but please report this error " +
-                        "code here: https://discord.gg/CGgvDUz");
-                sendMessage(damagerPlayer, "error");
-                return;
-            }
+        // Stop event since party friendly fire is off
+        sendMessage(damagerPlayer, Message.FRIENDLY_FIRE_NOT_ALLOWED);
+        if (PartyChat.getDataHandler().debug)
+            PartyChat.debug(attackedPlayer, "Damage prevented due to friendly fire being disabled.");
+        event.setCancelled(true);
+        attackedPlayer.setFireTicks(-1);
+    }
 
-            // Stop event if party friendly fire is off
-            if (!party.allowsFriendlyFire()) {
-                sendMessage(damagerPlayer, "friendly-fire-not-allowed");
-                if (PartyChat.getDataHandler().debug)
-                    PartyChat.debug(attackedPlayer, "Damage prevented due to friendly fire being disabled.");
-                event.setCancelled(true);
-                event.getEntity().setFireTicks(-1);
+    @EventHandler(ignoreCancelled = true)
+    public void onPotionSplash(PotionSplashEvent event) {
+        if (!isHarmful(event.getPotion().getEffects()))
+            return;
+        Player thrower = event.getPotion().getShooter() instanceof Player
+                ? (Player) event.getPotion().getShooter() : null;
+        Party party = getProtectedParty(thrower);
+        if (party == null)
+            return;
+        boolean prevented = false;
+        for (LivingEntity entity : event.getAffectedEntities()) {
+            if (entity != thrower && entity instanceof Player && party.hasMember(entity.getUniqueId())) {
+                event.setIntensity(entity, 0); // Removes them from the affected entities
+                prevented = true;
             }
         }
+        if (prevented) {
+            sendMessage(thrower, Message.FRIENDLY_FIRE_NOT_ALLOWED);
+            if (PartyChat.getDataHandler().debug)
+                PartyChat.debug(thrower, "Splash potion blocked due to friendly fire being disabled.");
+        }
+    }
+
+    // Lingering potions create an area effect cloud, so they're handled here each time the cloud applies
+    @EventHandler(ignoreCancelled = true)
+    public void onAreaEffectCloudApply(AreaEffectCloudApplyEvent event) {
+        AreaEffectCloud cloud = event.getEntity();
+        if (!isHarmful(cloud.getCustomEffects()) && !HARMFUL_EFFECTS.contains(cloud.getBasePotionData()
+                .getType().getEffectType()))
+            return;
+        Player thrower = cloud.getSource() instanceof Player ? (Player) cloud.getSource() : null;
+        Party party = getProtectedParty(thrower);
+        if (party == null)
+            return;
+        event.getAffectedEntities().removeIf(entity -> entity != thrower && entity instanceof Player
+                && party.hasMember(entity.getUniqueId()));
     }
 
+    /**
+     * Get the party whose members a player can't hurt.
+     * @param source Whoever caused the damage.
+     * @return The player's party if friendly fire is disabled in it, otherwise null.
+     */
+    @Nullable
+    private Party getProtectedParty(@Nullable ProjectileSource source) {
+        if (!(source instanceof Player))
+            return null;
+        User user = PartyChat.getDataHandler().getUser((Player) source);
+        Party party = user == null ? null : user.getParty();
+        return party == null || party.allowsFriendlyFire() ? null : party;
+    }
+
+    private static boolean isHarmful(Collection<PotionEffect> effects) {
+        for (PotionEffect effect : effects)
+            if (HARMFUL_EFFECTS.contains(effect.getType()))
+                return true;
+        return false;
+    }
 }
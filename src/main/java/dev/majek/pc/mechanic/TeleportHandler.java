@@ -0,0 +1,343 @@
+package dev.majek.pc.mechanic;
+
+import dev.majek.pc.PartyChat;
+import dev.majek.pc.data.object.Bar;
+import dev.majek.pc.data.object.Message;
+import dev.majek.pc.data.object.User;
+import dev.majek.pc.util.Utils;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static dev.majek.pc.command.PartyCommand.sendMessage;
+import static dev.majek.pc.command.PartyCommand.sendMessageWithReplacement;
+
+/**
+ * This class handles summon teleports. Every player waiting to be teleported gets a countdown with their own
+ * boss bar, and all countdowns are advanced together by a single task. A countdown is canceled if the player
+ * moves or leaves the server. On Paper the safe spot is found against a chunk snapshot off the main thread and
+ * the player is teleported asynchronously.
+ *
+ * Finished countdowns go through an admission queue that only lets a configured number of players teleport
+ * each tick. Players admitted in the same tick share chunk snapshots and safe-spot searches when their
+ * destinations match, so a large summon doesn't load the same chunk once per member.
+ */
+public class TeleportHandler extends Mechanic {
+
+    private final Map<UUID, Countdown> countdowns;
+    private final Deque<Countdown> teleportQueue;
+    private BukkitTask task;
+    private BukkitTask queueTask;
+    private int updateRate;
+    private int teleportsPerTick;
+
+    public TeleportHandler() {
+        this.countdowns = new HashMap<>();
+        this.teleportQueue = new ArrayDeque<>();
+    }
+
+    /**
+     * Runs on plugin shutdown. Cancel all running countdowns and queued teleports.
+     */
+    @Override
+    public void onShutdown() {
+        new ArrayList<>(countdowns.values()).forEach(this::stop);
+        teleportQueue.clear();
+        if (queueTask != null) {
+            queueTask.cancel();
+            queueTask = null;
+        }
+    }
+
+    /**
+     * Runs when a player leaves. Cancel their countdown or queued teleport if they have one.
+     * @param player The player leaving.
+     */
+    @Override
+    public void onPlayerQuit(Player player) {
+        Countdown countdown = countdowns.get(player.getUniqueId());
+        if (countdown != null)
+            stop(countdown);
+        teleportQueue.removeIf(queued -> queued.player == player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        if (countdowns.isEmpty())
+            return;
+        Countdown countdown = countdowns.get(event.getPlayer().getUniqueId());
+        if (countdown == null || event.getTo() == null)
+            return;
+        Location to = event.getTo();
+        if (to.getBlockX() == countdown.x && to.getBlockY() == countdown.y && to.getBlockZ() == countdown.z
+                && to.getWorld() == countdown.world)
+            return;
+
+        // Player moved to a different block, cancel the teleport
+        stop(countdown);
+        sendMessage(countdown.player, Message.TELEPORT_CANCELED);
+        Player leader = Bukkit.getPlayer(countdown.leaderID);
+        if (leader != null)
+            sendMessageWithReplacement(leader, Message.TELEPORT_CANCELED_LEADER, "%player%",
+                    countdown.player.getDisplayName());
+    }
+
+    /**
+     * Start a summon countdown for a player. Once the countdown completes the player is teleported to the leader.
+     * Any countdown the player already has is replaced.
+     * @param player The player being summoned.
+     * @param leader The party leader the player is being summoned to.
+     * @param seconds Length of the countdown in seconds.
+     */
+    public void startCountdown(Player player, Player leader, int seconds) {
+        Countdown previous = countdowns.get(player.getUniqueId());
+        if (previous != null)
+            stop(previous);
+
+        Countdown countdown = new Countdown(player, leader.getUniqueId(), Math.max(seconds, 0) * 20);
+        countdown.bar.addPlayer(player);
+        countdowns.put(player.getUniqueId(), countdown);
+        PartyChat.getDataHandler().getUser(player).setNoMove(true);
+
+        // Load the leader's chunk while the player waits so the teleport doesn't have to
+        try {
+            leader.getWorld().getChunkAtAsync(leader.getLocation());
+        } catch (NoSuchMethodError ignored) {
+            // Not running Paper, the chunk will be loaded when the player teleports
+        }
+
+        if (task == null) {
+            updateRate = PartyChat.getDataHandler().getSettings().getSummonBarUpdateRate();
+            task = Bukkit.getScheduler().runTaskTimer(PartyChat.getCore(), this::tick, updateRate, updateRate);
+        }
+    }
+
+    /**
+     * Check if a player is currently waiting to be teleported.
+     * @param player The player to check.
+     * @return true -> waiting | false -> not waiting
+     */
+    public boolean isCountingDown(Player player) {
+        return countdowns.containsKey(player.getUniqueId());
+    }
+
+    /**
+     * Get a player's position in the teleport queue.
+     * @param player The player to check.
+     * @return Position starting at 1, or -1 if the player isn't queued.
+     */
+    public int getQueuePosition(Player player) {
+        int position = 1;
+        for (Countdown queued : teleportQueue) {
+            if (queued.player == player)
+                return position;
+            position++;
+        }
+        return -1;
+    }
+
+    /**
+     * Advance every running countdown, completing the ones that finished.
+     */
+    private void tick() {
+        List<Countdown> finished = new ArrayList<>();
+        for (Countdown countdown : countdowns.values()) {
+            countdown.remainingTicks -= updateRate;
+            if (countdown.remainingTicks <= 0)
+                finished.add(countdown);
+            else
+                countdown.bar.setProgress((double) countdown.remainingTicks / countdown.totalTicks);
+        }
+        finished.forEach(countdown -> {
+            stop(countdown);
+            enqueue(countdown);
+        });
+    }
+
+    /**
+     * Put a player whose countdown has finished in the teleport queue. The player is told their position if they
+     * won't be teleported in the next tick.
+     * @param countdown The finished countdown.
+     */
+    private void enqueue(Countdown countdown) {
+        if (queueTask == null) {
+            teleportsPerTick = PartyChat.getDataHandler().getSettings().getMaxTeleportsPerTick();
+            queueTask = Bukkit.getScheduler().runTaskTimer(PartyChat.getCore(), this::drainQueue, 1L, 1L);
+        }
+        teleportQueue.add(countdown);
+        if (teleportQueue.size() > teleportsPerTick)
+            sendMessageWithReplacement(countdown.player, Message.TELEPORT_QUEUED, "%position%",
+                    String.valueOf(teleportQueue.size()));
+    }
+
+    /**
+     * Admit up to the configured number of queued players, sharing chunk snapshots and safe-spot searches
+     * between players headed to the same place.
+     */
+    private void drainQueue() {
+        Map<String, CompletableFuture<ChunkSnapshot>> snapshots = new HashMap<>();
+        Map<String, CompletableFuture<Location>> destinations = new HashMap<>();
+        for (int i = 0; i < teleportsPerTick && !teleportQueue.isEmpty(); i++)
+            complete(teleportQueue.poll(), snapshots, destinations);
+        if (teleportQueue.isEmpty() && queueTask != null) {
+            queueTask.cancel();
+            queueTask = null;
+        }
+    }
+
+    /**
+     * Teleport a player admitted from the queue.
+     * @param countdown The finished countdown.
+     * @param snapshots Chunk snapshots already requested this tick, keyed by chunk.
+     * @param destinations Safe-spot searches already started this tick, keyed by column.
+     */
+    private void complete(Countdown countdown, Map<String, CompletableFuture<ChunkSnapshot>> snapshots,
+                          Map<String, CompletableFuture<Location>> destinations) {
+        Player player = countdown.player;
+        if (!player.isOnline())
+            return;
+        Player leader = Bukkit.getPlayer(countdown.leaderID);
+        if (leader == null) {
+            sendMessage(player, Message.LEADER_OFFLINE);
+            return;
+        }
+
+        Location target = Utils.constrainToBorder(leader.getLocation());
+        try {
+            String column = target.getWorld().getName() + ':' + target.getBlockX() + ':' + target.getBlockY()
+                    + ':' + target.getBlockZ();
+            CompletableFuture<Location> destination = destinations.get(column);
+            if (destination == null) {
+                String chunk = target.getWorld().getName() + ':' + (target.getBlockX() >> 4) + ':'
+                        + (target.getBlockZ() >> 4);
+                CompletableFuture<ChunkSnapshot> snapshot = snapshots.get(chunk);
+                if (snapshot == null) {
+                    snapshot = snapshotAsync(target.getWorld(), target.getBlockX() >> 4, target.getBlockZ() >> 4);
+                    snapshots.put(chunk, snapshot);
+                }
+                destination = findSafeAsync(snapshot, target, target.getBlockY() - 5, 256);
+                destinations.put(column, destination);
+            }
+            destination.thenAccept(safe -> runSync(() -> {
+                if (!player.isOnline())
+                    return;
+                if (safe == null)
+                    sendMessage(player, Message.TELEPORT_UNSAFE);
+                else
+                    player.teleportAsync(safe).thenAccept(success -> runSync(() -> {
+                        if (success && player.isOnline())
+                            sendMessage(player, Message.TELEPORTED);
+                    }));
+            }));
+        } catch (NoSuchMethodError error) {
+            // Not running Paper, search and teleport on the main thread
+            Location safe = Utils.findSafe(target, target.getBlockY() - 5, 256);
+            if (safe == null)
+                sendMessage(player, Message.TELEPORT_UNSAFE);
+            else {
+                player.teleport(safe);
+                sendMessage(player, Message.TELEPORTED);
+            }
+        }
+    }
+
+    /**
+     * Load a chunk asynchronously and take a snapshot of it on the main thread.
+     * @param world The chunk's world.
+     * @param chunkX The chunk's x.
+     * @param chunkZ The chunk's z.
+     * @return Future completed with the snapshot.
+     */
+    public CompletableFuture<ChunkSnapshot> snapshotAsync(World world, int chunkX, int chunkZ) {
+        CompletableFuture<ChunkSnapshot> future = new CompletableFuture<>();
+        world.getChunkAtAsync(chunkX, chunkZ).thenAccept(chunk ->
+                runSync(() -> future.complete(chunk.getChunkSnapshot(false, false, false))));
+        return future;
+    }
+
+    /**
+     * Search the column at a location for a safe spot without blocking the main thread. The search runs against
+     * the chunk snapshot on an async thread.
+     * @param snapshot Future snapshot of the chunk containing the location.
+     * @param location The location to search, already constrained to the world border.
+     * @param bottom The bottom of the search range.
+     * @param top The top of the search range.
+     * @return Future completed with the safe location, or null if there is none.
+     */
+    public CompletableFuture<Location> findSafeAsync(CompletableFuture<ChunkSnapshot> snapshot, Location location,
+                                                     int bottom, int top) {
+        World world = location.getWorld();
+        int maxHeight = world.getMaxHeight();
+        CompletableFuture<Location> future = new CompletableFuture<>();
+        snapshot.thenAccept(chunk -> Bukkit.getScheduler().runTaskAsynchronously(PartyChat.getCore(), () -> {
+            int y = Utils.findSafe(chunk, location.getBlockX() & 15, location.getBlockY(),
+                    location.getBlockZ() & 15, bottom, top, maxHeight);
+            future.complete(y == -1 ? null : new Location(world, location.getBlockX() + 0.5,
+                    y + 1, location.getBlockZ() + 0.5, location.getYaw(), location.getPitch()));
+        }));
+        return future;
+    }
+
+    /**
+     * Run a task on the main thread, immediately if we're already on it.
+     * @param task The task to run.
+     */
+    private static void runSync(Runnable task) {
+        if (Bukkit.isPrimaryThread())
+            task.run();
+        else
+            Bukkit.getScheduler().runTask(PartyChat.getCore(), task);
+    }
+
+    /**
+     * Remove a countdown, its bar, and stop the task if nothing is left to count down.
+     * @param countdown The countdown to stop.
+     */
+    private void stop(Countdown countdown) {
+        countdowns.remove(countdown.player.getUniqueId(), countdown);
+        countdown.bar.removeBar();
+        User user = PartyChat.getDataHandler().getUser(countdown.player);
+        if (user != null)
+            user.setNoMove(false);
+        if (countdowns.isEmpty() && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * A player waiting to be teleported and the block they must stay in.
+     */
+    private static class Countdown {
+
+        private final Player player;
+        private final UUID leaderID;
+        private final Bar bar;
+        private final int totalTicks;
+        private int remainingTicks;
+        private final World world;
+        private final int x, y, z;
+
+        private Countdown(Player player, UUID leaderID, int totalTicks) {
+            this.player = player;
+            this.leaderID = leaderID;
+            this.bar = new Bar(player);
+            this.totalTicks = Math.max(totalTicks, 1);
+            this.remainingTicks = totalTicks;
+            Location location = player.getLocation();
+            this.world = location.getWorld();
+            this.x = location.getBlockX();
+            this.y = location.getBlockY();
+            this.z = location.getBlockZ();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package dev.majek.pc.util;
 
 import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
@@ -352,15 +353,7 @@ public final class Utils {
      * @return a safe location if found, else null
      */
     public static Location findSafe(Location safe, int bottom, int top) {
-        World world = safe.getWorld();
-        if (world == null)
-            world = Bukkit.getWorlds().get(0);
-
-        final int border = (int)world.getWorldBorder().getSize() - 1 >> 1;
-        safe.setX(constrain(safe.getBlockX() - world.getWorldBorder().getCenter().getBlockX(), -border, border) +
-                world.getWorldBorder().getCenter().getBlockX());
-        safe.setZ(constrain(safe.getBlockZ() - world.getWorldBorder().getCenter().getBlockZ(), -border, border) +
-                world.getWorldBorder().getCenter().getBlockZ());
+        constrainToBorder(safe);
 
 
         for (int i = safe.getBlockY(), c = 0; ; i += (c = (c & 1) == 0 ? c + 1 : ~c)) {
@@ -388,6 +381,92 @@ public final class Utils {
         }
     }
 
+    /**
+     * Move a location's x and z onto the block grid and inside the world border.
+     * The location's world is set to the default world if it has none.
+     *
+     * @param location the location to constrain, this is modified
+     * @return the same location
+     */
+    public static Location constrainToBorder(Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            world = Bukkit.getWorlds().get(0);
+            location.setWorld(world);
+        }
+
+        final int border = (int)world.getWorldBorder().getSize() - 1 >> 1;
+        location.setX(constrain(location.getBlockX() - world.getWorldBorder().getCenter().getBlockX(), -border, border) +
+                world.getWorldBorder().getCenter().getBlockX());
+        location.setZ(constrain(location.getBlockZ() - world.getWorldBorder().getCenter().getBlockZ(), -border, border) +
+                world.getWorldBorder().getCenter().getBlockZ());
+        return location;
+    }
+
+    /**
+     * The same search as {@link #findSafe(Location, int, int)} but run against a chunk snapshot, so it never touches
+     * the world and is safe to call off the main thread. Passability is approximated from the block's material.
+     *
+     * @param snapshot  the snapshot of the chunk containing the column
+     * @param x         the x of the column inside the chunk (0-15)
+     * @param y         the y to start searching from
+     * @param z         the z of the column inside the chunk (0-15)
+     * @param bottom    where to set the bottom of the search
+     * @param top       where to set the top    of the search
+     * @param maxHeight the world's max height, blocks at or above it are treated as air
+     * @return the y of the block a player can stand on, or -1 if none was found
+     */
+    public static int findSafe(ChunkSnapshot snapshot, int x, int y, int z, int bottom, int top, int maxHeight) {
+        for (int i = y, c = 0; ; i += (c = (c & 1) == 0 ? c + 1 : ~c)) {
+            if (isSafe(snapshot, x, i, z, maxHeight))
+                return i;
+
+            if (bottom > i) {
+                for (i += c + 1; i <= top; ++i)
+                    if (isSafe(snapshot, x, i, z, maxHeight))
+                        return i;
+                return -1;
+            }
+
+            if (i > top) {
+                for (i += ~c; bottom <= i; --i)
+                    if (isSafe(snapshot, x, i, z, maxHeight))
+                        return i;
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Snapshot version of {@link #canStand(Block)} and {@link #isSafe(Location)} combined: the block at y can be
+     * stood on and the two blocks above it won't damage the player.
+     */
+    private static boolean isSafe(ChunkSnapshot snapshot, int x, int y, int z, int maxHeight) {
+        Material ground = typeAt(snapshot, x, y, z, maxHeight);
+        if (!((ground.isSolid() && ground != Material.MAGMA_BLOCK && ground != Material.CACTUS)
+                || ground == Material.WATER))
+            return false;
+        return !doesDamage(typeAt(snapshot, x, y + 1, z, maxHeight))
+                && !doesDamage(typeAt(snapshot, x, y + 2, z, maxHeight));
+    }
+
+    /**
+     * Snapshot version of {@link #doesDamage(Block)}.
+     */
+    private static boolean doesDamage(Material type) {
+        return type.isSolid() ||
+                type == Material.WATER ||
+                type == Material.FIRE ||
+                type == Material.CACTUS ||
+                type == Material.SWEET_BERRY_BUSH ||
+                type == Material.LAVA ||
+                type == Material.WITHER_ROSE;
+    }
+
+    private static Material typeAt(ChunkSnapshot snapshot, int x, int y, int z, int maxHeight) {
+        return y < 0 || y >= maxHeight ? Material.AIR : snapshot.getBlockType(x, y, z);
+    }
+
     /**
      * Search the nearby area
      *  for a location a player can safely stand before teleporting them